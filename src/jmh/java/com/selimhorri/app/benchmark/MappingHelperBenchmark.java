@@ -0,0 +1,81 @@
+package com.selimhorri.app.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.selimhorri.app.domain.Cart;
+import com.selimhorri.app.domain.Order;
+import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.helper.CartMappingHelper;
+import com.selimhorri.app.helper.OrderMappingHelper;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingHelperBenchmark {
+	
+	private Cart cart;
+	private Order order;
+	private OrderDto orderDto;
+	
+	@Setup
+	public void setUp() {
+		this.cart = Cart.builder()
+				.cartId(1)
+				.userId(1)
+				.isActive(true)
+				.build();
+		this.order = Order.builder()
+				.orderId(1)
+				.orderDate(LocalDateTime.now())
+				.orderDesc("benchmark order")
+				.orderFee(5000.0)
+				.status(OrderStatus.ORDERED)
+				.isActive(true)
+				.cart(this.cart)
+				.build();
+		this.orderDto = OrderMappingHelper.map(this.order);
+	}
+	
+	@Benchmark
+	public OrderDto mapOrder() {
+		return OrderMappingHelper.map(this.order);
+	}
+	
+	@Benchmark
+	public Order mapOrderDto() {
+		return OrderMappingHelper.map(this.orderDto);
+	}
+	
+	@Benchmark
+	public Order mapForCreationOrder() {
+		return OrderMappingHelper.mapForCreationOrder(this.orderDto);
+	}
+	
+	@Benchmark
+	public Order mapForUpdate() {
+		return OrderMappingHelper.mapForUpdate(this.orderDto, this.cart);
+	}
+	
+	@Benchmark
+	public CartDto mapCart() {
+		return CartMappingHelper.map(this.cart);
+	}
+	
+}
@@ -0,0 +1,111 @@
+package com.selimhorri.app.benchmark;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.OrderServiceApplication;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.helper.PageCursorHelper;
+import com.selimhorri.app.service.OrderService;
+
+/**
+ * Read paths of {@link OrderService} against the embedded H2 of the dev profile,
+ * seeded with synthetic orders so deep pages are meaningful.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms512m", "-Xmx512m" })
+@State(Scope.Benchmark)
+public class OrderServiceBenchmark {
+	
+	private static final int FIRST_SEEDED_ID = 1000;
+	private static final int PAGE_SIZE = 50;
+	
+	@Param({ "10000" })
+	public int orderCount;
+	
+	private ConfigurableApplicationContext context;
+	private OrderService orderService;
+	private String deepCursor;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		// System properties outrank the profile yml (show-sql and SQL debug logging are on in dev)
+		System.setProperty("spring.jpa.show-sql", "false");
+		System.setProperty("logging.level.root", "WARN");
+		System.setProperty("logging.level.org.hibernate.SQL", "WARN");
+		System.setProperty("logging.level.com.selimhorri.app", "WARN");
+		
+		this.context = new SpringApplicationBuilder(OrderServiceApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("eureka.client.enabled=false", "spring.zipkin.enabled=false")
+				.run();
+		this.orderService = this.context.getBean(OrderService.class);
+		
+		final JdbcTemplate jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+		jdbcTemplate.batchUpdate("INSERT INTO orders (order_id, cart_id, order_desc, order_fee) VALUES (?, ?, ?, ?)",
+				new BatchPreparedStatementSetter() {
+					
+					@Override
+					public void setValues(final PreparedStatement ps, final int i) throws SQLException {
+						ps.setInt(1, FIRST_SEEDED_ID + i);
+						ps.setInt(2, i % 4 + 1);
+						ps.setString(3, "benchmark order " + i);
+						ps.setDouble(4, 5000.0);
+					}
+					
+					@Override
+					public int getBatchSize() {
+						return orderCount;
+					}
+					
+				});
+		
+		this.deepCursor = PageCursorHelper.encode(FIRST_SEEDED_ID + this.orderCount - PAGE_SIZE * 2);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.context.close();
+	}
+	
+	@Benchmark
+	public DtoCollectionResponse<OrderDto> findAllFirstPage() {
+		return this.orderService.findAll(null, PAGE_SIZE);
+	}
+	
+	@Benchmark
+	public DtoCollectionResponse<OrderDto> findAllDeepPage() {
+		return this.orderService.findAll(this.deepCursor, PAGE_SIZE);
+	}
+	
+	@Benchmark
+	public OrderDto findById() {
+		return this.orderService.findById(FIRST_SEEDED_ID + ThreadLocalRandom.current().nextInt(this.orderCount));
+	}
+	
+}
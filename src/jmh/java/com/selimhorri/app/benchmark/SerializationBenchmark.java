@@ -0,0 +1,101 @@
+package com.selimhorri.app.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.selimhorri.app.config.mapper.MapperConfig;
+import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+/**
+ * Jackson cost of the order payloads with the custom LOCAL_DATE_TIME_FORMAT handling,
+ * using the ObjectMapper exactly as MapperConfig ships it (indented output).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+	
+	@Param({ "1", "50", "500" })
+	public int collectionSize;
+	
+	private ObjectWriter indentedWriter;
+	private ObjectWriter compactWriter;
+	private ObjectReader orderReader;
+	
+	private OrderDto orderDto;
+	private DtoCollectionResponse<OrderDto> collectionResponse;
+	private String orderJson;
+	
+	@Setup
+	public void setUp() throws JsonProcessingException {
+		final ObjectMapper objectMapper = new MapperConfig().objectMapperBean();
+		this.indentedWriter = objectMapper.writer();
+		this.compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+		this.orderReader = objectMapper.readerFor(OrderDto.class);
+		
+		this.orderDto = orderDto(1);
+		this.collectionResponse = new DtoCollectionResponse<>(IntStream.rangeClosed(1, this.collectionSize)
+				.mapToObj(SerializationBenchmark::orderDto)
+				.collect(Collectors.toList()), "MTAw");
+		this.orderJson = this.indentedWriter.writeValueAsString(this.orderDto);
+	}
+	
+	@Benchmark
+	public String serializeOrderDto() throws JsonProcessingException {
+		return this.indentedWriter.writeValueAsString(this.orderDto);
+	}
+	
+	@Benchmark
+	public OrderDto deserializeOrderDto() throws JsonProcessingException {
+		return this.orderReader.readValue(this.orderJson);
+	}
+	
+	@Benchmark
+	public byte[] serializeCollectionIndented() throws JsonProcessingException {
+		return this.indentedWriter.writeValueAsBytes(this.collectionResponse);
+	}
+	
+	@Benchmark
+	public byte[] serializeCollectionCompact() throws JsonProcessingException {
+		return this.compactWriter.writeValueAsBytes(this.collectionResponse);
+	}
+	
+	private static OrderDto orderDto(final int orderId) {
+		return OrderDto.builder()
+				.orderId(orderId)
+				.orderDate(LocalDateTime.now())
+				.orderDesc("benchmark order " + orderId)
+				.orderFee(5000.0)
+				.orderStatus(OrderStatus.CREATED)
+				.cartDto(CartDto.builder()
+						.cartId(orderId % 100)
+						.build())
+				.build();
+	}
+	
+}
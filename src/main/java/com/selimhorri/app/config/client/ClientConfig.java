@@ -1,17 +1,44 @@
 package com.selimhorri.app.config.client;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
+@EnableConfigurationProperties(UserClientProperties.class)
 public class ClientConfig {
 	
+	@Bean(destroyMethod = "dispose")
+	public ConnectionProvider userClientConnectionProvider(final UserClientProperties userClientProperties) {
+		return ConnectionProvider.builder("user-client")
+				.maxConnections(userClientProperties.getMaxConnections())
+				.pendingAcquireTimeout(userClientProperties.getPendingAcquireTimeout())
+				.build();
+	}
+	
 	@LoadBalanced
 	@Bean
-	public RestTemplate restTemplateBean() {
-		return new RestTemplate();
+	public WebClient.Builder webClientBuilderBean(final ConnectionProvider userClientConnectionProvider,
+			final UserClientProperties userClientProperties,
+			final ObjectProvider<WebClientCustomizer> webClientCustomizers) {
+		final HttpClient httpClient = HttpClient.create(userClientConnectionProvider)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) userClientProperties.getConnectTimeout().toMillis())
+				.responseTimeout(userClientProperties.getReadTimeout());
+		final WebClient.Builder builder = WebClient.builder()
+				.clientConnector(new ReactorClientHttpConnector(httpClient));
+		// Keep what Boot's own builder would get (metrics, codecs)
+		webClientCustomizers.orderedStream()
+				.forEach(customizer -> customizer.customize(builder));
+		return builder;
 	}
 	
 	
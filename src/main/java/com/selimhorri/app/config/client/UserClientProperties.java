@@ -0,0 +1,40 @@
+package com.selimhorri.app.config.client;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.user-client")
+@Data
+public class UserClientProperties {
+	
+	/**
+	 * Maximum number of USER-SERVICE calls in flight for one enrichment.
+	 */
+	private int parallelism = 8;
+	
+	private int maxConnections = 50;
+	private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+	private Duration connectTimeout = Duration.ofSeconds(1);
+	private Duration readTimeout = Duration.ofSeconds(2);
+	
+	private final Cache cache = new Cache();
+	
+	@Data
+	public static class Cache {
+		
+		private long maximumSize = 10_000;
+		private Duration expireAfterWrite = Duration.ofMinutes(10);
+		private Duration expireAfterAccess = Duration.ofMinutes(5);
+		
+		/**
+		 * How long a 404 from USER-SERVICE is remembered.
+		 */
+		private Duration negativeTtl = Duration.ofSeconds(30);
+		private long negativeMaximumSize = 1_000;
+		
+	}
+	
+}
@@ -0,0 +1,66 @@
+package com.selimhorri.app.config.datasource;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read replica, on when app.datasource.replica.jdbc-url is set: @Transactional(readOnly = true)
+ * work reads from the replica, writes and non-transactional work (Flyway, the outbox relay)
+ * stay on the primary. Reads may lag behind the writes by the replication delay.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.jdbc-url")
+@Slf4j
+public class DataSourceRoutingConfig {
+	
+	// Same pool Boot would build from spring.datasource.*
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(final DataSourceProperties dataSourceProperties) {
+		final HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+	
+	@Bean
+	@ConfigurationProperties("app.datasource.replica")
+	public HikariDataSource replicaDataSource() {
+		final HikariDataSource dataSource = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.build();
+		dataSource.setPoolName("replica");
+		return dataSource;
+	}
+	
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") final DataSource primaryDataSource,
+			@Qualifier("replicaDataSource") final DataSource replicaDataSource) {
+		final ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+		routingDataSource.setTargetDataSources(Map.<Object, Object>of(
+				ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+				ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+		routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+		routingDataSource.afterPropertiesSet();
+		log.info("*** DataSource, config; routing read-only transactions to the replica *");
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+	
+}
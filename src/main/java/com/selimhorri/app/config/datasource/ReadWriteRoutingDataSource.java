@@ -0,0 +1,22 @@
+package com.selimhorri.app.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Only
+ * correct behind a LazyConnectionDataSourceProxy: the transaction manager asks for its
+ * connection before the read-only flag of the transaction is published.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+	
+	public enum Route {
+		PRIMARY, REPLICA
+	}
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+	}
+	
+}
@@ -0,0 +1,25 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.idempotency")
+@Data
+public class IdempotencyProperties {
+	
+	/**
+	 * Minimum time a key is remembered, records older than this are purged.
+	 */
+	private Duration ttl = Duration.ofHours(24);
+	
+	/**
+	 * Entries of the in-memory index in front of the idempotency_records table.
+	 */
+	private long cacheMaximumSize = 10_000;
+	
+	private Duration purgeInterval = Duration.ofHours(1);
+	
+}
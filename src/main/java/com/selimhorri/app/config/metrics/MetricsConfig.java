@@ -0,0 +1,18 @@
+package com.selimhorri.app.config.metrics;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class MetricsConfig {
+	
+	// Backs the @Timed service methods, tagged with class and method by the aspect
+	@Bean
+	public TimedAspect timedAspect(final MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+	
+}
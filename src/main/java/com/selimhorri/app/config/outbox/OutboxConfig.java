@@ -0,0 +1,21 @@
+package com.selimhorri.app.config.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.selimhorri.app.service.impl.LocalOrderEventPublisher;
+
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+	
+	// Other publishers (a broker client) register under their own app.outbox.publisher value
+	@Bean
+	@ConditionalOnProperty(name = "app.outbox.publisher", havingValue = "local", matchIfMissing = true)
+	public LocalOrderEventPublisher localOrderEventPublisher(final OutboxProperties outboxProperties) {
+		return new LocalOrderEventPublisher(outboxProperties.getLocalCapacity());
+	}
+	
+}
@@ -0,0 +1,32 @@
+package com.selimhorri.app.config.outbox;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.outbox")
+@Data
+public class OutboxProperties {
+	
+	/**
+	 * Events handed to the publisher at once.
+	 */
+	private int batchSize = 500;
+	
+	private Duration relayInterval = Duration.ofSeconds(1);
+	
+	/**
+	 * How long published events are kept before being purged.
+	 */
+	private Duration retention = Duration.ofDays(7);
+	
+	/**
+	 * Publisher implementation, "local" keeps events in memory.
+	 */
+	private String publisher = "local";
+	
+	private int localCapacity = 10_000;
+	
+}
@@ -0,0 +1,106 @@
+package com.selimhorri.app.config.reactive;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.selimhorri.app.exception.ReactiveApiExceptionHandler;
+import com.selimhorri.app.resource.reactive.CartReactiveHandler;
+import com.selimhorri.app.resource.reactive.OrderReactiveHandler;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive read path, on with the "reactive" profile: the GET routes of orders and carts
+ * are also served by a Reactor Netty server over R2DBC, while every route stays on Tomcat.
+ * Boot's own R2DBC auto-configuration is excluded, its transaction manager would clash
+ * with the JPA one, and the R2DBC pool is kept out of the context so the JDBC DataSource
+ * is still auto-configured.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(ReactiveReadProperties.class)
+public class ReactiveReadConfig {
+
+	// Deliberately not a bean: a ConnectionFactory in the context makes Boot's DataSourceAutoConfiguration
+	// back off, which would leave JPA and Flyway without their JDBC DataSource
+	private ConnectionPool reactiveConnectionPool;
+
+	@Bean
+	public DatabaseClient reactiveDatabaseClient(final ReactiveReadProperties reactiveReadProperties) {
+		final ReactiveReadProperties.R2dbc r2dbc = reactiveReadProperties.getR2dbc();
+		final ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbc.getUrl()).mutate();
+		if (StringUtils.hasText(r2dbc.getUsername()))
+			options.option(ConnectionFactoryOptions.USER, r2dbc.getUsername());
+		if (r2dbc.getPassword() != null)
+			options.option(ConnectionFactoryOptions.PASSWORD, r2dbc.getPassword());
+		this.reactiveConnectionPool = new ConnectionPool(
+				ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+						.initialSize(1)
+						.maxSize(r2dbc.getMaxPoolSize())
+						.maxAcquireTime(r2dbc.getMaxAcquireTime())
+						.build());
+		return DatabaseClient.create(this.reactiveConnectionPool);
+	}
+
+	@PreDestroy
+	public void disposeReactiveConnectionPool() {
+		if (this.reactiveConnectionPool != null)
+			this.reactiveConnectionPool.dispose();
+	}
+
+	// Same paths as OrderResource and CartResource, only their GET routes
+	@Bean
+	public RouterFunction<ServerResponse> reactiveReadRoutes(final OrderReactiveHandler orderReactiveHandler,
+			final CartReactiveHandler cartReactiveHandler,
+			final ReactiveApiExceptionHandler reactiveApiExceptionHandler,
+			@Value("${server.servlet.context-path:}") final String contextPath) {
+		final String orders = contextPath + "/api/orders";
+		final String carts = contextPath + "/api/carts";
+		return RouterFunctions.route()
+				.GET(orders, orderReactiveHandler::findAll)
+				.GET(orders + "/export", orderReactiveHandler::exportAll)
+				.GET(orders + "/{orderId}", orderReactiveHandler::findById)
+				.GET(carts, cartReactiveHandler::findAll)
+				.GET(carts + "/{cartId}", cartReactiveHandler::findById)
+				// Deferred so errors thrown while assembling the response are handled too
+				.filter((request, next) -> Mono.defer(() -> next.handle(request))
+						.onErrorResume(reactiveApiExceptionHandler::handle))
+				.build();
+	}
+
+	@Bean
+	public ReactiveReadServer reactiveReadServer(final RouterFunction<ServerResponse> reactiveReadRoutes,
+			final ObjectMapper objectMapper,
+			final ReactiveReadProperties reactiveReadProperties) {
+		// Compact output: INDENT_OUTPUT would also split the ndjson lines
+		final ObjectMapper compactMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+		final HandlerStrategies handlerStrategies = HandlerStrategies.builder()
+				.codecs(configurer -> {
+					configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(compactMapper));
+					configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(compactMapper));
+				})
+				.build();
+		return new ReactiveReadServer(RouterFunctions.toHttpHandler(reactiveReadRoutes, handlerStrategies),
+				reactiveReadProperties);
+	}
+
+}
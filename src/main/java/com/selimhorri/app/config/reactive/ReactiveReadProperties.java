@@ -0,0 +1,36 @@
+package com.selimhorri.app.config.reactive;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.reactive")
+@Data
+public class ReactiveReadProperties {
+
+	/**
+	 * Port of the reactive read server, next to the servlet one; 0 picks a free port.
+	 */
+	private int port = 8301;
+
+	/**
+	 * Fixed number of event-loop threads serving every reactive connection.
+	 */
+	private int eventLoopThreads = 4;
+
+	private final R2dbc r2dbc = new R2dbc();
+
+	@Data
+	public static class R2dbc {
+
+		private String url;
+		private String username;
+		private String password;
+		private int maxPoolSize = 10;
+		private Duration maxAcquireTime = Duration.ofSeconds(2);
+
+	}
+
+}
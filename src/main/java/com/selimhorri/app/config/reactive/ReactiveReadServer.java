@@ -0,0 +1,67 @@
+package com.selimhorri.app.config.reactive;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Reactor Netty server for the reactive read routes, running next to Tomcat on its own
+ * small, fixed set of event-loop threads. Started once the context is refreshed.
+ */
+@Slf4j
+public class ReactiveReadServer implements SmartLifecycle {
+
+	private final HttpHandler httpHandler;
+	private final ReactiveReadProperties reactiveReadProperties;
+
+	private LoopResources loopResources;
+	private DisposableServer disposableServer;
+
+	public ReactiveReadServer(final HttpHandler httpHandler, final ReactiveReadProperties reactiveReadProperties) {
+		this.httpHandler = httpHandler;
+		this.reactiveReadProperties = reactiveReadProperties;
+	}
+
+	@Override
+	public synchronized void start() {
+		this.loopResources = LoopResources.create("reactive-read", 1,
+				this.reactiveReadProperties.getEventLoopThreads(), true);
+		this.disposableServer = HttpServer.create()
+				.port(this.reactiveReadProperties.getPort())
+				.runOn(this.loopResources)
+				.handle(new ReactorHttpHandlerAdapter(this.httpHandler))
+				.bindNow();
+		log.info("*** Reactive read server, config; listening on port {} with {} event-loop threads *",
+				this.disposableServer.port(), this.reactiveReadProperties.getEventLoopThreads());
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (this.disposableServer != null) {
+			this.disposableServer.disposeNow();
+			this.disposableServer = null;
+		}
+		if (this.loopResources != null) {
+			this.loopResources.disposeLater().block();
+			this.loopResources = null;
+		}
+	}
+
+	@Override
+	public synchronized boolean isRunning() {
+		return this.disposableServer != null;
+	}
+
+	/**
+	 * Bound port, the actual one when app.reactive.port is 0.
+	 */
+	public synchronized int getPort() {
+		return this.disposableServer != null ? this.disposableServer.port() : this.reactiveReadProperties.getPort();
+	}
+
+}
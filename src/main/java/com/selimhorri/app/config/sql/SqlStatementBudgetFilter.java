@@ -0,0 +1,77 @@
+package com.selimhorri.app.config.sql;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records how many SQL statements each request issued, per endpoint, and flags the
+ * endpoints that go over their budget (typically an N+1 over Order.cart or Cart.orders).
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+	
+	/**
+	 * Request attribute holding the statement count once the request completed.
+	 */
+	public static final String STATEMENT_COUNT_ATTRIBUTE = SqlStatementBudgetFilter.class.getName() + ".statementCount";
+	
+	private static final String UNKNOWN_URI = "UNKNOWN";
+	
+	private final SqlStatementProperties sqlStatementProperties;
+	private final MeterRegistry meterRegistry;
+	
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException {
+		SqlStatementCounter.start();
+		final int statementCount;
+		final String uri;
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			statementCount = SqlStatementCounter.stop();
+			request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, statementCount);
+			// Recorded for failed requests too, they are often the ones that issued the most statements
+			final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+			DistributionSummary.builder("http.server.sql.statements")
+					.tag("method", request.getMethod())
+					.tag("uri", uri)
+					.publishPercentileHistogram()
+					.minimumExpectedValue(1.0)
+					.maximumExpectedValue(1_000.0)
+					.register(this.meterRegistry)
+					.record(statementCount);
+		}
+		
+		final int budget = this.sqlStatementProperties.budgetFor(uri);
+		if (statementCount > budget) {
+			Counter.builder("http.server.sql.budget.exceeded")
+					.tag("method", request.getMethod())
+					.tag("uri", uri)
+					.register(this.meterRegistry)
+					.increment();
+			final String message = String.format("%s %s issued %d SQL statements, over its budget of %d",
+					request.getMethod(), uri, statementCount, budget);
+			if (this.sqlStatementProperties.isFailOnExceeded())
+				throw new IllegalStateException(message);
+			log.warn(message);
+		}
+	}
+	
+}
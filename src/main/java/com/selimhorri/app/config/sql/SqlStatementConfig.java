@@ -0,0 +1,27 @@
+package com.selimhorri.app.config.sql;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(SqlStatementProperties.class)
+public class SqlStatementConfig {
+	
+	@Bean
+	public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+		return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR,
+				new SqlStatementCounter());
+	}
+	
+	@Bean
+	public SqlStatementBudgetFilter sqlStatementBudgetFilter(final SqlStatementProperties sqlStatementProperties,
+			final MeterRegistry meterRegistry) {
+		return new SqlStatementBudgetFilter(sqlStatementProperties, meterRegistry);
+	}
+	
+}
@@ -0,0 +1,38 @@
+package com.selimhorri.app.config.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the statements Hibernate prepares on the current thread between {@link #start()}
+ * and {@link #stop()}. A JDBC batch counts once, second-level and query cache hits not at all.
+ */
+public class SqlStatementCounter implements StatementInspector {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+	
+	public static void start() {
+		COUNT.set(new int[1]);
+	}
+	
+	public static int current() {
+		final int[] count = COUNT.get();
+		return count == null ? 0 : count[0];
+	}
+	
+	public static int stop() {
+		final int count = current();
+		COUNT.remove();
+		return count;
+	}
+	
+	@Override
+	public String inspect(final String sql) {
+		final int[] count = COUNT.get();
+		if (count != null)
+			count[0]++;
+		return sql;
+	}
+	
+}
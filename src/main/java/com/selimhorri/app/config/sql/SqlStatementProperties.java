@@ -0,0 +1,33 @@
+package com.selimhorri.app.config.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.sql")
+@Data
+public class SqlStatementProperties {
+	
+	/**
+	 * Maximum JDBC statements one HTTP request may issue before a warning is logged.
+	 */
+	private int statementBudget = 10;
+	
+	/**
+	 * Per endpoint overrides keyed by URI pattern, e.g. "[/api/orders/batch]": 500.
+	 */
+	private final Map<String, Integer> endpointBudgets = new HashMap<>();
+	
+	/**
+	 * Fail the request instead of only warning, meant for tests.
+	 */
+	private boolean failOnExceeded = false;
+	
+	public int budgetFor(final String uriPattern) {
+		return this.endpointBudgets.getOrDefault(uriPattern, this.statementBudget);
+	}
+	
+}
@@ -0,0 +1,77 @@
+package com.selimhorri.app.config.threads;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opt-in virtual threads for servlet request handling. The build stays on Java 11, so the
+ * executor is looked up reflectively and the flag needs a Java 21+ runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+	
+	// Every request gets its own virtual thread: the USER-SERVICE join parks it instead of holding
+	// one of the server.tomcat.threads.max workers. JDBC waits do not: H2 and Connector/J 8.0 block
+	// inside synchronized sections, which pins the carrier thread for the length of the query
+	@Bean
+	public VirtualThreadProtocolHandlerCustomizer virtualThreadProtocolHandlerCustomizer() {
+		final ExecutorService executor = newVirtualThreadPerTaskExecutor()
+				.orElseThrow(() -> new IllegalStateException(
+						"app.threads.virtual.enabled needs a Java 21+ runtime, running on " + Runtime.version()));
+		log.info("*** Tomcat, config; handling requests on virtual threads *");
+		return new VirtualThreadProtocolHandlerCustomizer(executor);
+	}
+	
+	/**
+	 * Executors.newVirtualThreadPerTaskExecutor() when the running JVM has it, empty otherwise.
+	 */
+	public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+		try {
+			return Optional.of((ExecutorService) Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor")
+					.invoke(null));
+		}
+		catch (ReflectiveOperationException e) {
+			// Missing before Java 19, or a preview API without --enable-preview on 19 and 20
+			return Optional.empty();
+		}
+	}
+	
+	/**
+	 * Not exposed as an Executor bean, which would replace Boot's applicationTaskExecutor.
+	 */
+	public static class VirtualThreadProtocolHandlerCustomizer
+			implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+		
+		private final ExecutorService executor;
+		
+		public VirtualThreadProtocolHandlerCustomizer(final ExecutorService executor) {
+			this.executor = executor;
+		}
+		
+		@Override
+		public void customize(final ProtocolHandler protocolHandler) {
+			protocolHandler.setExecutor(this.executor);
+		}
+		
+		// Tomcat only shuts down the executors it created itself
+		@Override
+		public void destroy() {
+			this.executor.shutdown();
+		}
+		
+	}
+	
+}
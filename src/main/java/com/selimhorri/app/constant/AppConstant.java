@@ -11,6 +11,16 @@ public abstract class AppConstant {
 	public static final String ZONED_DATE_TIME_FORMAT = "dd-MM-yyyy__HH:mm:ss:SSSSSS";
 	public static final String INSTANT_FORMAT = "dd-MM-yyyy__HH:mm:ss:SSSSSS";
 	
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 500;
+	public static final int MAX_BATCH_SIZE = 5000;
+	public static final int MAX_EMBEDDED_ORDERS = 1000;
+	public static final int EXPORT_FLUSH_SIZE = 1000;
+	public static final int DEFAULT_SUMMARY_DAYS = 30;
+	public static final long CHANGE_FEED_SETTLE_SECONDS = 2;
+	
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	
 	@NoArgsConstructor(access = AccessLevel.PRIVATE)
 	public abstract class DiscoveredDomainsApi {
 		
@@ -14,6 +14,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonFormat.Shape;
 
 import lombok.AccessLevel;
@@ -40,6 +41,14 @@ abstract public class AbstractMappedEntity implements Serializable {
 	@Column(name = "updated_at", nullable = false)
 	private Instant updatedAt;
 	
+	/**
+	 * Row revision behind the ETags, bumped on every entity or bulk update. Not a JPA
+	 * version: the id-only Cart references built by the mapping helpers must stay detached.
+	 */
+	@JsonIgnore
+	@Column(name = "version", nullable = false)
+	private long version;
+	
 	@PrePersist
 	protected void onCreate() {
 		if (createdAt == null) {
@@ -51,5 +60,6 @@ abstract public class AbstractMappedEntity implements Serializable {
 	@PreUpdate
 	protected void onUpdate() {
 		updatedAt = Instant.now();
+		version++;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.selimhorri.app.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response of a request sent with an Idempotency-Key, replayed when the same key comes back.
+ */
+@Entity
+@Table(name = "idempotency_records")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public final class IdempotencyRecord implements Persistable<String>, Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(name = "idempotency_key", unique = true, nullable = false, updatable = false)
+	private String idempotencyKey;
+	
+	// SHA-256 of the operation and request body, hex encoded
+	@Column(name = "request_hash", nullable = false, updatable = false)
+	private String requestHash;
+	
+	@Column(name = "response_body", nullable = false, updatable = false)
+	private String responseBody;
+	
+	@Column(name = "created_at", nullable = false, updatable = false)
+	private Instant createdAt;
+	
+	// Keys are assigned by the client, so save() must persist instead of merging (no SELECT first)
+	@Transient
+	@Builder.Default
+	private boolean isNew = true;
+	
+	@Override
+	public String getId() {
+		return this.idempotencyKey;
+	}
+	
+	@Override
+	public boolean isNew() {
+		return this.isNew;
+	}
+	
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		this.isNew = false;
+	}
+	
+}
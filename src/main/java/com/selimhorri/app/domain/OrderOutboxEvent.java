@@ -0,0 +1,71 @@
+package com.selimhorri.app.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import com.selimhorri.app.domain.enums.OrderEventType;
+import com.selimhorri.app.domain.enums.OrderStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order change written in the same transaction as the change itself, published later by the relay.
+ */
+@Entity
+@Table(name = "order_outbox_events")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public final class OrderOutboxEvent implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	// Pooled ids like orders, so the events of a batch are inserted as JDBC batches too
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_events_seq")
+	@GenericGenerator(name = "order_outbox_events_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "order_outbox_events_seq"),
+			@Parameter(name = "force_table_use", value = "true"),
+			@Parameter(name = "increment_size", value = "50"),
+			@Parameter(name = "optimizer", value = "pooled-lo") })
+	@Column(name = "event_id", unique = true, nullable = false, updatable = false)
+	private Long eventId;
+	
+	@Column(name = "order_id", nullable = false, updatable = false)
+	private Integer orderId;
+	
+	@Enumerated(EnumType.STRING)
+	@Column(name = "event_type", nullable = false, updatable = false)
+	private OrderEventType eventType;
+	
+	@Enumerated(EnumType.STRING)
+	@Column(name = "order_status", updatable = false)
+	private OrderStatus orderStatus;
+	
+	// Compact OrderDto JSON after the change, null for deletions
+	@Column(name = "payload", updatable = false)
+	private String payload;
+	
+	@Column(name = "created_at", nullable = false, updatable = false)
+	private Instant createdAt;
+	
+	@Column(name = "published_at")
+	private Instant publishedAt;
+	
+}
@@ -0,0 +1,8 @@
+package com.selimhorri.app.domain.enums;
+
+public enum OrderEventType {
+    CREATED,
+    UPDATED,
+    STATUS_CHANGED,
+    DELETED
+}
@@ -0,0 +1,54 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.ser.InstantSerializer;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CartChangeDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer cartId;
+	
+	@JsonSerialize(using = InstantSerializer.class)
+	@JsonFormat(shape = Shape.STRING)
+	private Instant updatedAt;
+	
+	/**
+	 * Tombstone flag, soft deleted carts come without the cart payload.
+	 */
+	private boolean deleted;
+	
+	@JsonProperty("cart")
+	@JsonInclude(Include.NON_NULL)
+	private CartDto cartDto;
+	
+	/**
+	 * Projection constructor for JPQL "select new", inactive rows become tombstones.
+	 */
+	public CartChangeDto(final Integer cartId, final Instant updatedAt, final boolean isActive,
+			final Integer userId) {
+		this.cartId = cartId;
+		this.updatedAt = updatedAt;
+		this.deleted = !isActive;
+		if (isActive)
+			this.cartDto = new CartDto(cartId, userId);
+	}
+	
+}
@@ -3,6 +3,7 @@ package com.selimhorri.app.dto;
 import java.io.Serializable;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -30,6 +31,28 @@ public class CartDto implements Serializable {
 	@JsonInclude(Include.NON_NULL)
 	private UserDto userDto;
 	
+	/**
+	 * Row version, only read to build the ETag header.
+	 */
+	@JsonIgnore
+	private Long version;
+	
+	/**
+	 * Projection constructor for JPQL "select new", same shape as CartMappingHelper.map.
+	 */
+	public CartDto(final Integer cartId, final Integer userId) {
+		this.cartId = cartId;
+		this.userId = userId;
+		this.userDto = UserDto.builder()
+				.userId(userId)
+				.build();
+	}
+	
+	public CartDto(final Integer cartId, final Integer userId, final Long version) {
+		this(cartId, userId);
+		this.version = version;
+	}
+	
 }
 
 
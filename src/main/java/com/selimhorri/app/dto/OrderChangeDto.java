@@ -0,0 +1,57 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.ser.InstantSerializer;
+import com.selimhorri.app.domain.enums.OrderStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class OrderChangeDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer orderId;
+	
+	@JsonSerialize(using = InstantSerializer.class)
+	@JsonFormat(shape = Shape.STRING)
+	private Instant updatedAt;
+	
+	/**
+	 * Tombstone flag, soft deleted orders come without the order payload.
+	 */
+	private boolean deleted;
+	
+	@JsonProperty("order")
+	@JsonInclude(Include.NON_NULL)
+	private OrderDto orderDto;
+	
+	/**
+	 * Projection constructor for JPQL "select new", inactive rows become tombstones.
+	 */
+	public OrderChangeDto(final Integer orderId, final Instant updatedAt, final boolean isActive,
+			final LocalDateTime orderDate, final String orderDesc, final Double orderFee,
+			final OrderStatus orderStatus, final Integer cartId) {
+		this.orderId = orderId;
+		this.updatedAt = updatedAt;
+		this.deleted = !isActive;
+		if (isActive)
+			this.orderDto = new OrderDto(orderId, orderDate, orderDesc, orderFee, orderStatus, cartId);
+	}
+	
+}
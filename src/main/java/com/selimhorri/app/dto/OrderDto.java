@@ -7,6 +7,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -45,6 +46,34 @@ public class OrderDto implements Serializable {
 	@JsonInclude(Include.NON_NULL)
 	private CartDto cartDto;
 	
+	/**
+	 * Row version, only read to build the ETag header.
+	 */
+	@JsonIgnore
+	private Long version;
+	
+	/**
+	 * Projection constructor for JPQL "select new", reads the cart id straight
+	 * from the orders.cart_id column without loading the cart.
+	 */
+	public OrderDto(final Integer orderId, final LocalDateTime orderDate, final String orderDesc,
+			final Double orderFee, final OrderStatus orderStatus, final Integer cartId) {
+		this.orderId = orderId;
+		this.orderDate = orderDate;
+		this.orderDesc = orderDesc;
+		this.orderFee = orderFee;
+		this.orderStatus = orderStatus;
+		this.cartDto = CartDto.builder()
+				.cartId(cartId)
+				.build();
+	}
+	
+	public OrderDto(final Integer orderId, final LocalDateTime orderDate, final String orderDesc,
+			final Double orderFee, final OrderStatus orderStatus, final Integer cartId, final Long version) {
+		this(orderId, orderDate, orderDesc, orderFee, orderStatus, cartId);
+		this.version = version;
+	}
+	
 }
 
 
@@ -0,0 +1,48 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.ser.InstantSerializer;
+import com.selimhorri.app.domain.enums.OrderEventType;
+import com.selimhorri.app.domain.enums.OrderStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class OrderEventDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Unique per event, consumers drop the duplicates of an at-least-once delivery by remembering
+	 * the exact ids they have seen. The ids are not in commit or publish order (each instance
+	 * takes its own block of them), so a high-water mark would drop events that were never seen.
+	 */
+	private Long eventId;
+	private Integer orderId;
+	private OrderEventType eventType;
+	private OrderStatus orderStatus;
+	
+	@JsonSerialize(using = InstantSerializer.class)
+	@JsonFormat(shape = Shape.STRING)
+	private Instant occurredAt;
+	
+	// Already serialized order, written as is
+	@JsonRawValue
+	@JsonInclude(Include.NON_NULL)
+	private String order;
+	
+}
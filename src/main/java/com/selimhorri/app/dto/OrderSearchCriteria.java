@@ -0,0 +1,55 @@
+package com.selimhorri.app.dto;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.enums.OrderStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filters of the order search, every one optional. Dates are [from, to), fees are
+ * inclusive on both ends.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class OrderSearchCriteria {
+
+	private OrderStatus status;
+
+	@DateTimeFormat(pattern = AppConstant.LOCAL_DATE_TIME_FORMAT)
+	private LocalDateTime from;
+
+	@DateTimeFormat(pattern = AppConstant.LOCAL_DATE_TIME_FORMAT)
+	private LocalDateTime to;
+
+	private Double minFee;
+	private Double maxFee;
+	private Integer cartId;
+	private Integer userId;
+
+	/**
+	 * Sort key, the order id always breaks ties so the keyset stays stable.
+	 */
+	@Builder.Default
+	private SortKey sort = SortKey.ORDER_ID;
+
+	@Builder.Default
+	private Direction direction = Direction.ASC;
+
+	public enum SortKey {
+		ORDER_ID,
+		ORDER_DATE,
+		// Orders without a fee have no place in this order, so they are left out
+		ORDER_FEE
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Date;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.enums.OrderStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of a GROUP BY over active orders, only the key of the grouping in use is set.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@JsonInclude(Include.NON_NULL)
+public class OrderSummaryDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private OrderStatus orderStatus;
+	
+	@JsonSerialize(using = LocalDateSerializer.class)
+	@JsonDeserialize(using = LocalDateDeserializer.class)
+	@JsonFormat(pattern = AppConstant.LOCAL_DATE_FORMAT, shape = Shape.STRING)
+	@DateTimeFormat(pattern = AppConstant.LOCAL_DATE_FORMAT)
+	private LocalDate orderDay;
+	
+	private Integer cartId;
+	private Integer userId;
+	private Long cartCount;
+	private Long orderCount;
+	private Double totalFee;
+	
+	/**
+	 * Projection constructor for the overall totals.
+	 */
+	public OrderSummaryDto(final Long orderCount, final Double totalFee) {
+		this.orderCount = orderCount;
+		this.totalFee = totalFee;
+	}
+	
+	/**
+	 * Projection constructor for totals by status.
+	 */
+	public OrderSummaryDto(final OrderStatus orderStatus, final Long orderCount, final Double totalFee) {
+		this(orderCount, totalFee);
+		this.orderStatus = orderStatus;
+	}
+	
+	/**
+	 * Projection constructor for totals by day, JPQL "cast(... as date)" yields a java.sql.Date.
+	 */
+	public OrderSummaryDto(final Date orderDay, final Long orderCount, final Double totalFee) {
+		this(orderCount, totalFee);
+		this.orderDay = new java.sql.Date(orderDay.getTime()).toLocalDate();
+	}
+	
+	/**
+	 * Projection constructor for totals by cart.
+	 */
+	public OrderSummaryDto(final Integer cartId, final Integer userId, final Long orderCount, final Double totalFee) {
+		this(orderCount, totalFee);
+		this.cartId = cartId;
+		this.userId = userId;
+	}
+	
+	/**
+	 * Projection constructor for totals by user, across all of the user's carts.
+	 */
+	public OrderSummaryDto(final Integer userId, final Long cartCount, final Long orderCount, final Double totalFee) {
+		this(orderCount, totalFee);
+		this.userId = userId;
+		this.cartCount = cartCount;
+	}
+	
+}
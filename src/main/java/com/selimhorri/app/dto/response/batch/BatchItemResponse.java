@@ -0,0 +1,33 @@
+package com.selimhorri.app.dto.response.batch;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class BatchItemResponse<T> implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Position of the item in the request payload.
+	 */
+	private int index;
+	private boolean created;
+	
+	@JsonInclude(Include.NON_NULL)
+	private T item;
+	
+	@JsonInclude(Include.NON_NULL)
+	private String error;
+	
+}
@@ -0,0 +1,29 @@
+package com.selimhorri.app.dto.response.changes;
+
+import java.util.Collection;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ChangeFeedResponse<T> {
+	
+	private Collection<T> collection;
+	
+	/**
+	 * Opaque watermark to pass as "since" on the next poll, never null so an
+	 * empty feed can be resumed from the same point.
+	 */
+	private String token;
+	
+	/**
+	 * True when more changes are already waiting after this page.
+	 */
+	private boolean hasMore;
+	
+}
@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.selimhorri.app.exception.payload.ExceptionMsg;
 import com.selimhorri.app.exception.wrapper.CartNotFoundException;
+import com.selimhorri.app.exception.wrapper.IdempotencyKeyConflictException;
 import com.selimhorri.app.exception.wrapper.OrderNotFoundException;
 import com.selimhorri.app.exception.wrapper.UserNotFoundException;
 
@@ -46,6 +47,38 @@ public class ApiExceptionHandler {
 				badRequest);
 	}
 
+	@ExceptionHandler(value = IllegalArgumentException.class)
+	public ResponseEntity<ExceptionMsg> handleIllegalArgumentException(final IllegalArgumentException e) {
+
+		log.info("**ApiExceptionHandler controller, handle illegal argument*\n");
+		final var badRequest = HttpStatus.BAD_REQUEST;
+
+		return new ResponseEntity<>(
+				ExceptionMsg.builder()
+						.msg("#### " + e.getMessage() + "! ####")
+						.httpStatus(badRequest)
+						.timestamp(ZonedDateTime
+								.now(ZoneId.systemDefault()))
+						.build(),
+				badRequest);
+	}
+
+	@ExceptionHandler(value = IdempotencyKeyConflictException.class)
+	public ResponseEntity<ExceptionMsg> handleIdempotencyKeyConflictException(final IdempotencyKeyConflictException e) {
+
+		log.info("**ApiExceptionHandler controller, handle idempotency key conflict*\n");
+		final var conflict = HttpStatus.CONFLICT;
+
+		return new ResponseEntity<>(
+				ExceptionMsg.builder()
+						.msg("#### " + e.getMessage() + "! ####")
+						.httpStatus(conflict)
+						.timestamp(ZonedDateTime
+								.now(ZoneId.systemDefault()))
+						.build(),
+				conflict);
+	}
+
 	@ExceptionHandler(value = {
 			CartNotFoundException.class,
 			OrderNotFoundException.class,
@@ -0,0 +1,60 @@
+package com.selimhorri.app.exception;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.selimhorri.app.exception.payload.ExceptionMsg;
+import com.selimhorri.app.exception.wrapper.CartNotFoundException;
+import com.selimhorri.app.exception.wrapper.OrderNotFoundException;
+import com.selimhorri.app.exception.wrapper.UserNotFoundException;
+
+import lombok.extern.slf4j.Slf4j;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * ApiExceptionHandler for the reactive read routes, same statuses and payload.
+ */
+@Component
+@Profile("reactive")
+@Slf4j
+public class ReactiveApiExceptionHandler {
+
+	public Mono<ServerResponse> handle(final Throwable e) {
+		final HttpStatus httpStatus = resolveStatus(e);
+		final String msg;
+		if (httpStatus.is5xxServerError()) {
+			log.error("**ReactiveApiExceptionHandler, unhandled error*\n", e);
+			msg = "#### Internal server error! ####";
+		}
+		else {
+			log.info("**ReactiveApiExceptionHandler, handle API request*\n");
+			msg = "#### " + e.getMessage() + "! ####";
+		}
+
+		return ServerResponse.status(httpStatus)
+				.bodyValue(ExceptionMsg.builder()
+						.msg(msg)
+						.httpStatus(httpStatus)
+						.timestamp(ZonedDateTime
+								.now(ZoneId.systemDefault()))
+						.build());
+	}
+
+	private static HttpStatus resolveStatus(final Throwable e) {
+		if (e instanceof IllegalArgumentException)
+			return HttpStatus.BAD_REQUEST;
+		if (e instanceof CartNotFoundException
+				|| e instanceof OrderNotFoundException
+				|| e instanceof UserNotFoundException
+				|| e instanceof IllegalStateException)
+			return HttpStatus.NOT_FOUND;
+		return HttpStatus.INTERNAL_SERVER_ERROR;
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class IdempotencyKeyConflictException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public IdempotencyKeyConflictException() {
+		super();
+	}
+	
+	public IdempotencyKeyConflictException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public IdempotencyKeyConflictException(String message) {
+		super(message);
+	}
+	
+	public IdempotencyKeyConflictException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
+
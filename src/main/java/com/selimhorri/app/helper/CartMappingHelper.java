@@ -1,8 +1,18 @@
 package com.selimhorri.app.helper;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.selimhorri.app.constant.AppConstant;
 import com.selimhorri.app.domain.Cart;
 import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.OrderDto;
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
 
 public interface CartMappingHelper {
 	
@@ -24,6 +34,46 @@ public interface CartMappingHelper {
 				.build();
 	}
 	
+	/**
+	 * Nests the orders of a page of carts under each cart. orderDtos are ordered by (cartId, orderId)
+	 * and read with a limit of MAX_EMBEDDED_ORDERS + 1: when the limit cuts through a cart the page
+	 * ends before that cart and the next page starts with it. A cart that alone is over the limit
+	 * comes without orderDtos, its orders are paged on /api/carts/{cartId}/orders.
+	 */
+	public static DtoCollectionResponse<CartDto> attachOrders(final DtoCollectionResponse<CartDto> page,
+			final List<OrderDto> orderDtos) {
+		final List<CartDto> cartDtos = new ArrayList<>(page.getCollection());
+		if (cartDtos.isEmpty())
+			return page;
+		final Integer cutCartId = orderDtos.size() > AppConstant.MAX_EMBEDDED_ORDERS
+				? orderDtos.get(AppConstant.MAX_EMBEDDED_ORDERS).getCartDto().getCartId()
+				: null;
+		final Map<Integer, Set<OrderDto>> ordersByCartId = orderDtos.stream()
+				.filter(o -> !o.getCartDto().getCartId().equals(cutCartId))
+				.collect(Collectors.groupingBy(
+						o -> o.getCartDto().getCartId(),
+						Collectors.mapping(o -> {
+							// Already nested under its cart
+							o.setCartDto(null);
+							return o;
+						}, Collectors.toCollection(LinkedHashSet::new))));
+		
+		final List<CartDto> pageCartDtos = cutCartId == null
+				? cartDtos
+				: cartDtos.stream()
+						.filter(c -> c.getCartId() < cutCartId)
+						.collect(Collectors.toCollection(ArrayList::new));
+		if (pageCartDtos.isEmpty())
+			pageCartDtos.add(cartDtos.get(0));
+		else
+			pageCartDtos.forEach(c -> c.setOrderDtos(ordersByCartId.getOrDefault(c.getCartId(), Set.of())));
+		
+		if (pageCartDtos.size() == cartDtos.size())
+			return new DtoCollectionResponse<>(pageCartDtos, page.getNextCursor());
+		return new DtoCollectionResponse<>(pageCartDtos,
+				PageCursorHelper.encode(pageCartDtos.get(pageCartDtos.size() - 1).getCartId()));
+	}
+	
 	
 	
 }
@@ -0,0 +1,68 @@
+package com.selimhorri.app.helper;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.response.changes.ChangeFeedResponse;
+
+/**
+ * Change feed helpers: a token is a PageCursorHelper cursor over (updatedAt, id) of
+ * the last row seen, so the next poll is a range scan on the (updated_at, id) index.
+ */
+public interface ChangeFeedHelper {
+	
+	public static final String ORIGIN_TOKEN = PageCursorHelper.encode(Instant.EPOCH, 0);
+	
+	public static Instant decodeUpdatedAt(final String token) {
+		try {
+			return Instant.parse(keys(token)[0]);
+		}
+		catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid change token: " + token, e);
+		}
+	}
+	
+	public static Integer decodeId(final String token) {
+		try {
+			return Integer.valueOf(keys(token)[1]);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid change token: " + token, e);
+		}
+	}
+	
+	/**
+	 * Upper bound of a poll: rows touched in the last few seconds are left for the next
+	 * poll, so a transaction that commits late with an older updatedAt is not skipped.
+	 */
+	public static Instant settledBefore() {
+		return Instant.now().minusSeconds(AppConstant.CHANGE_FEED_SETTLE_SECONDS);
+	}
+	
+	/**
+	 * Builds a feed page from rows fetched with a limit of pageSize + 1. The token of an
+	 * empty page is the one it was requested with.
+	 */
+	public static <T> ChangeFeedResponse<T> feed(final List<T> rows, final int pageSize, final String token,
+			final Function<T, Object[]> keyExtractor) {
+		final boolean hasMore = rows.size() > pageSize;
+		final List<T> pageRows = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+		final String nextToken = pageRows.isEmpty()
+				? normalize(token)
+				: PageCursorHelper.encode(keyExtractor.apply(pageRows.get(pageRows.size() - 1)));
+		return new ChangeFeedResponse<>(pageRows, nextToken, hasMore);
+	}
+	
+	private static String[] keys(final String token) {
+		return PageCursorHelper.decode(normalize(token), 2);
+	}
+	
+	private static String normalize(final String token) {
+		return token == null || token.isBlank() ? ORIGIN_TOKEN : token;
+	}
+	
+}
@@ -0,0 +1,19 @@
+package com.selimhorri.app.helper;
+
+import com.selimhorri.app.domain.OrderOutboxEvent;
+import com.selimhorri.app.dto.OrderEventDto;
+
+public interface OrderEventMappingHelper {
+	
+	public static OrderEventDto map(final OrderOutboxEvent orderOutboxEvent) {
+		return OrderEventDto.builder()
+				.eventId(orderOutboxEvent.getEventId())
+				.orderId(orderOutboxEvent.getOrderId())
+				.eventType(orderOutboxEvent.getEventType())
+				.orderStatus(orderOutboxEvent.getOrderStatus())
+				.occurredAt(orderOutboxEvent.getCreatedAt())
+				.order(orderOutboxEvent.getPayload())
+				.build();
+	}
+	
+}
@@ -0,0 +1,77 @@
+package com.selimhorri.app.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+/**
+ * Keyset pagination helpers: a cursor is the base64url encoding of the sort key of
+ * the last row of a page, so the next page is a plain "key > cursor" range scan.
+ */
+public interface PageCursorHelper {
+	
+	public static final String SEPARATOR = "|";
+	
+	public static int pageSize(final Integer requestedSize) {
+		if (requestedSize == null)
+			return AppConstant.DEFAULT_PAGE_SIZE;
+		return Math.max(1, Math.min(requestedSize, AppConstant.MAX_PAGE_SIZE));
+	}
+	
+	public static String encode(final Object... keys) {
+		final String raw = Arrays.stream(keys)
+				.map(String::valueOf)
+				.collect(Collectors.joining(SEPARATOR));
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static String[] decode(final String cursor, final int keyCount) {
+		final String raw;
+		try {
+			raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+		}
+		final String[] keys = raw.split("\\" + SEPARATOR, -1);
+		if (keys.length != keyCount)
+			throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+		return keys;
+	}
+	
+	/**
+	 * Decodes a single id cursor, ids are positive so 0 means "from the start".
+	 */
+	public static Integer decodeId(final String cursor) {
+		if (cursor == null || cursor.isBlank())
+			return 0;
+		try {
+			return Integer.valueOf(decode(cursor, 1)[0]);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+		}
+	}
+	
+	/**
+	 * Builds a page from rows fetched with a limit of pageSize + 1, the extra row
+	 * only tells whether a next page exists.
+	 */
+	public static <T> DtoCollectionResponse<T> page(final List<T> rows, final int pageSize,
+			final Function<T, Object[]> keyExtractor) {
+		if (rows.size() <= pageSize)
+			return new DtoCollectionResponse<>(rows);
+		final List<T> pageRows = new ArrayList<>(rows.subList(0, pageSize));
+		return new DtoCollectionResponse<>(pageRows,
+				encode(keyExtractor.apply(pageRows.get(pageSize - 1))));
+	}
+	
+}
@@ -1,16 +1,56 @@
 package com.selimhorri.app.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.selimhorri.app.domain.Cart;
+import com.selimhorri.app.dto.CartChangeDto;
+import com.selimhorri.app.dto.CartDto;
 
 public interface CartRepository extends JpaRepository<Cart, Integer> {
 
-    List<Cart> findAllByIsActiveTrue();
+    String CART_DTO_PROJECTION = "SELECT new com.selimhorri.app.dto.CartDto(c.cartId, c.userId) ";
+
+    @Query(CART_DTO_PROJECTION
+            + "FROM Cart c WHERE c.isActive = true AND c.cartId > :cartId ORDER BY c.cartId")
+    List<CartDto> findActiveDtosAfter(@Param("cartId") Integer cartId, Pageable pageable);
+
+    // Change feed: rows touched after the (updatedAt, cartId) watermark, soft deleted ones included as tombstones
+    @Query("SELECT new com.selimhorri.app.dto.CartChangeDto(c.cartId, c.updatedAt, c.isActive, c.userId) "
+            + "FROM Cart c WHERE c.updatedAt >= :updatedAt AND (c.updatedAt > :updatedAt OR c.cartId > :cartId) "
+            + "AND c.updatedAt < :before ORDER BY c.updatedAt, c.cartId")
+    List<CartChangeDto> findChangesAfter(@Param("updatedAt") Instant updatedAt, @Param("cartId") Integer cartId,
+            @Param("before") Instant before, Pageable pageable);
+
+    // The row version rides along for the ETag, so a conditional GET costs no extra statement
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("SELECT new com.selimhorri.app.dto.CartDto(c.cartId, c.userId, c.version) "
+            + "FROM Cart c WHERE c.isActive = true AND c.cartId = :cartId")
+    Optional<CartDto> findActiveDtoById(@Param("cartId") Integer cartId);
+
+    // Uncached on purpose: run on the replica, it must not leave a stale entry in the query cache
+    @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END "
+            + "FROM Cart c WHERE c.isActive = true AND c.cartId = :cartId")
+    boolean existsActiveById(@Param("cartId") Integer cartId);
+
+    @Query("SELECT c.cartId FROM Cart c WHERE c.cartId IN :cartIds")
+    Set<Integer> findExistingCartIds(@Param("cartIds") Collection<Integer> cartIds);
 
-    Optional<Cart> findByCartIdAndIsActiveTrue(Integer cartId);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cart c SET c.isActive = false, c.updatedAt = :updatedAt, c.version = c.version + 1 "
+            + "WHERE c.cartId = :cartId AND c.isActive = true")
+    int deactivateById(@Param("cartId") Integer cartId, @Param("updatedAt") Instant updatedAt);
 
-}
\ No newline at end of file
+}
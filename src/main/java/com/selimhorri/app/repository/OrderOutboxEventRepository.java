@@ -0,0 +1,29 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.selimhorri.app.domain.OrderOutboxEvent;
+
+public interface OrderOutboxEventRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    // Oldest unpublished events first, the batch size comes from the Pageable
+    @Query("SELECT e FROM OrderOutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.eventId")
+    List<OrderOutboxEvent> findUnpublished(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.publishedAt = :publishedAt WHERE e.eventId IN :eventIds")
+    int markPublished(@Param("eventIds") Collection<Long> eventIds, @Param("publishedAt") Instant publishedAt);
+
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.publishedAt < :publishedBefore")
+    int deleteAllPublishedBefore(@Param("publishedBefore") Instant publishedBefore);
+
+}
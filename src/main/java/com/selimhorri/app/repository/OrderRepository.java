@@ -1,15 +1,143 @@
 package com.selimhorri.app.repository;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.selimhorri.app.domain.Order;
+import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.OrderChangeDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderSummaryDto;
+
+public interface OrderRepository extends JpaRepository<Order, Integer>, OrderSearchRepository {
+
+    // Read paths select straight into OrderDto, so no managed Order (nor its EAGER cart) is loaded
+    String ORDER_DTO_PROJECTION = "SELECT new com.selimhorri.app.dto.OrderDto("
+            + "o.orderId, o.orderDate, o.orderDesc, o.orderFee, o.status, o.cart.cartId) ";
+
+    // Keyset page: active orders after the given id, the limit comes from the Pageable
+    @Query(ORDER_DTO_PROJECTION
+            + "FROM Order o WHERE o.isActive = true AND o.orderId > :orderId ORDER BY o.orderId")
+    List<OrderDto> findActiveDtosAfter(@Param("orderId") Integer orderId, Pageable pageable);
+
+    // Orders of a whole page of carts in one statement, grouped by the caller; the pageable caps the rows
+    @Query(ORDER_DTO_PROJECTION
+            + "FROM Order o WHERE o.isActive = true AND o.cart.cartId IN :cartIds ORDER BY o.cart.cartId, o.orderId")
+    List<OrderDto> findActiveDtosByCartIds(@Param("cartIds") Collection<Integer> cartIds, Pageable pageable);
+
+    // Keyset page of the orders of one cart, a range scan on (cart_id, is_active, order_id)
+    @Query(ORDER_DTO_PROJECTION
+            + "FROM Order o WHERE o.cart.cartId = :cartId AND o.isActive = true AND o.orderId > :orderId "
+            + "ORDER BY o.orderId")
+    List<OrderDto> findActiveDtosByCartIdAfter(@Param("cartId") Integer cartId, @Param("orderId") Integer orderId,
+            Pageable pageable);
+
+    // Keyset page of a user's orders across all of their carts, carts are matched on carts.user_id in the same statement
+    @Query(ORDER_DTO_PROJECTION
+            + "FROM Order o JOIN o.cart c WHERE c.userId = :userId AND o.isActive = true AND o.orderId > :orderId "
+            + "ORDER BY o.orderId")
+    List<OrderDto> findActiveDtosByUserIdAfter(@Param("userId") Integer userId, @Param("orderId") Integer orderId,
+            Pageable pageable);
+
+    // Full export: rows are pulled from an open cursor in fetch-size chunks, never held as a list
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query(ORDER_DTO_PROJECTION + "FROM Order o WHERE o.isActive = true ORDER BY o.orderId")
+    Stream<OrderDto> streamActiveDtos();
+
+    // Change feed: rows touched after the (updatedAt, orderId) watermark, soft deleted ones included as tombstones
+    @Query("SELECT new com.selimhorri.app.dto.OrderChangeDto("
+            + "o.orderId, o.updatedAt, o.isActive, o.orderDate, o.orderDesc, o.orderFee, o.status, o.cart.cartId) "
+            + "FROM Order o WHERE o.updatedAt >= :updatedAt AND (o.updatedAt > :updatedAt OR o.orderId > :orderId) "
+            + "AND o.updatedAt < :before ORDER BY o.updatedAt, o.orderId")
+    List<OrderChangeDto> findChangesAfter(@Param("updatedAt") Instant updatedAt, @Param("orderId") Integer orderId,
+            @Param("before") Instant before, Pageable pageable);
+
+    // Hot lookup polled by payment and shipping, kept in the query cache until orders changes
+    // The row version rides along for the ETag, so a conditional GET costs no extra statement
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("SELECT new com.selimhorri.app.dto.OrderDto("
+            + "o.orderId, o.orderDate, o.orderDesc, o.orderFee, o.status, o.cart.cartId, o.version) "
+            + "FROM Order o WHERE o.isActive = true AND o.orderId = :orderId")
+    Optional<OrderDto> findActiveDtoById(@Param("orderId") Integer orderId);
+
+    // Aggregates are computed by the database, only one compact row per group comes back
+    String ORDER_SUMMARY_DTO = "com.selimhorri.app.dto.OrderSummaryDto";
+
+    @Query("SELECT new " + ORDER_SUMMARY_DTO + "(COUNT(o), SUM(o.orderFee)) "
+            + "FROM Order o WHERE o.isActive = true")
+    OrderSummaryDto summarizeActive();
+
+    @Query("SELECT new " + ORDER_SUMMARY_DTO + "(o.status, COUNT(o), SUM(o.orderFee)) "
+            + "FROM Order o WHERE o.isActive = true GROUP BY o.status ORDER BY o.status")
+    List<OrderSummaryDto> summarizeActiveByStatus();
+
+    // Half-open range [from, to) on orderDate
+    @Query("SELECT new " + ORDER_SUMMARY_DTO + "(cast(o.orderDate as date), COUNT(o), SUM(o.orderFee)) "
+            + "FROM Order o WHERE o.isActive = true AND o.orderDate >= :from AND o.orderDate < :to "
+            + "GROUP BY cast(o.orderDate as date) ORDER BY cast(o.orderDate as date)")
+    List<OrderSummaryDto> summarizeActiveByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Top carts by revenue, the limit comes from the Pageable
+    @Query("SELECT new " + ORDER_SUMMARY_DTO + "(c.cartId, c.userId, COUNT(o), SUM(o.orderFee)) "
+            + "FROM Order o JOIN o.cart c WHERE o.isActive = true "
+            + "GROUP BY c.cartId, c.userId ORDER BY SUM(o.orderFee) DESC, c.cartId")
+    List<OrderSummaryDto> summarizeActiveByCart(Pageable pageable);
+
+    // Top users by revenue, the limit comes from the Pageable
+    @Query("SELECT new " + ORDER_SUMMARY_DTO + "(c.userId, COUNT(DISTINCT c.cartId), COUNT(o), SUM(o.orderFee)) "
+            + "FROM Order o JOIN o.cart c WHERE o.isActive = true AND c.userId IS NOT NULL "
+            + "GROUP BY c.userId ORDER BY SUM(o.orderFee) DESC, c.userId")
+    List<OrderSummaryDto> summarizeActiveByUser(Pageable pageable);
+
+    @Query("SELECT o.status FROM Order o WHERE o.isActive = true AND o.orderId = :orderId")
+    Optional<OrderStatus> findActiveStatusById(@Param("orderId") Integer orderId);
+
+    // Compare-and-set: only moves the order if it is still in the expected status
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :nextStatus, o.updatedAt = :updatedAt, o.version = o.version + 1 "
+            + "WHERE o.orderId = :orderId AND o.isActive = true AND o.status = :expectedStatus")
+    int updateStatusIfCurrent(@Param("orderId") Integer orderId,
+            @Param("expectedStatus") OrderStatus expectedStatus,
+            @Param("nextStatus") OrderStatus nextStatus,
+            @Param("updatedAt") Instant updatedAt);
+
+    // Soft deletes are plain UPDATEs, orders already in the protected status are left untouched
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.isActive = false, o.updatedAt = :updatedAt, o.version = o.version + 1 "
+            + "WHERE o.orderId IN :orderIds AND o.isActive = true AND o.status <> :protectedStatus")
+    int deactivateAllById(@Param("orderIds") Collection<Integer> orderIds,
+            @Param("protectedStatus") OrderStatus protectedStatus,
+            @Param("updatedAt") Instant updatedAt);
 
-public interface OrderRepository extends JpaRepository<Order, Integer> {
+    // Ids a soft delete would change, selected first so each one gets its outbox event. The rows
+    // stay locked until the delete commits, so a concurrent updateStatus cannot move one of them
+    // to IN_PAYMENT in between and leave a DELETED event for an order that was never deleted
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.orderId FROM Order o "
+            + "WHERE o.orderId IN :orderIds AND o.isActive = true AND o.status <> :protectedStatus")
+    List<Integer> findDeactivatableIds(@Param("orderIds") Collection<Integer> orderIds,
+            @Param("protectedStatus") OrderStatus protectedStatus);
 
-    List<Order> findAllByIsActiveTrue();
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.orderId FROM Order o "
+            + "WHERE o.cart.cartId = :cartId AND o.isActive = true AND o.status <> :protectedStatus")
+    List<Integer> findDeactivatableIdsByCartId(@Param("cartId") Integer cartId,
+            @Param("protectedStatus") OrderStatus protectedStatus);
 
     // Método para encontrar una orden por ID solo si está activa
     Optional<Order> findByOrderIdAndIsActiveTrue(Integer orderId);
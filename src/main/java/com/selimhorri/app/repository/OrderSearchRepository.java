@@ -0,0 +1,20 @@
+package com.selimhorri.app.repository;
+
+import java.util.List;
+
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderSearchCriteria;
+
+/**
+ * Dynamic order search, built with the Criteria API so only the given filters end up
+ * in the WHERE clause. Mixed into OrderRepository.
+ */
+public interface OrderSearchRepository {
+
+    /**
+     * Keyset page of active orders matching the criteria, in its sort order. after is the
+     * last row of the previous page (its order id and sort key), null for the first page.
+     */
+    List<OrderDto> searchActiveDtos(OrderSearchCriteria criteria, OrderDto after, int limit);
+
+}
@@ -0,0 +1,99 @@
+package com.selimhorri.app.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import com.selimhorri.app.domain.Cart;
+import com.selimhorri.app.domain.Order;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderSearchCriteria;
+
+public class OrderSearchRepositoryImpl implements OrderSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderDto> searchActiveDtos(final OrderSearchCriteria criteria, final OrderDto after, final int limit) {
+        final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        final CriteriaQuery<OrderDto> query = cb.createQuery(OrderDto.class);
+        final Root<Order> o = query.from(Order.class);
+        final Path<Integer> orderId = o.get("orderId");
+        final Path<Integer> cartId = o.get("cart").get("cartId");
+
+        // Same projection as ORDER_DTO_PROJECTION: cart_id is read from orders, the cart is only joined for userId
+        query.select(cb.construct(OrderDto.class, orderId, o.get("orderDate"), o.get("orderDesc"),
+                o.get("orderFee"), o.get("status"), cartId));
+
+        final List<Predicate> where = new ArrayList<>();
+        where.add(cb.isTrue(o.get("isActive")));
+        if (criteria.getStatus() != null)
+            where.add(cb.equal(o.get("status"), criteria.getStatus()));
+        if (criteria.getFrom() != null)
+            where.add(cb.greaterThanOrEqualTo(o.get("orderDate"), criteria.getFrom()));
+        if (criteria.getTo() != null)
+            where.add(cb.lessThan(o.get("orderDate"), criteria.getTo()));
+        if (criteria.getMinFee() != null)
+            where.add(cb.greaterThanOrEqualTo(o.get("orderFee"), criteria.getMinFee()));
+        if (criteria.getMaxFee() != null)
+            where.add(cb.lessThanOrEqualTo(o.get("orderFee"), criteria.getMaxFee()));
+        if (criteria.getCartId() != null)
+            where.add(cb.equal(cartId, criteria.getCartId()));
+        if (criteria.getUserId() != null)
+            where.add(cb.equal(o.<Order, Cart>join("cart").get("userId"), criteria.getUserId()));
+
+        final boolean ascending = criteria.getDirection() != Direction.DESC;
+        switch (criteria.getSort()) {
+            case ORDER_DATE:
+                if (after != null)
+                    where.add(after(cb, o.get("orderDate"), after.getOrderDate(), orderId, after.getOrderId(), ascending));
+                query.orderBy(order(cb, o.get("orderDate"), ascending), order(cb, orderId, ascending));
+                break;
+            case ORDER_FEE:
+                where.add(cb.isNotNull(o.get("orderFee")));
+                if (after != null)
+                    where.add(after(cb, o.get("orderFee"), after.getOrderFee(), orderId, after.getOrderId(), ascending));
+                query.orderBy(order(cb, o.get("orderFee"), ascending), order(cb, orderId, ascending));
+                break;
+            default:
+                if (after != null)
+                    where.add(ascending
+                            ? cb.greaterThan(orderId, after.getOrderId())
+                            : cb.lessThan(orderId, after.getOrderId()));
+                query.orderBy(order(cb, orderId, ascending));
+        }
+
+        query.where(where.toArray(Predicate[]::new));
+        return this.entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Rows past the (key, orderId) of the previous page; the leading bound alone is a range on the key index
+    private static <Y extends Comparable<? super Y>> Predicate after(final CriteriaBuilder cb,
+            final Expression<Y> key, final Y keyValue, final Expression<Integer> orderId, final Integer orderIdValue,
+            final boolean ascending) {
+        if (ascending)
+            return cb.and(cb.greaterThanOrEqualTo(key, keyValue),
+                    cb.or(cb.greaterThan(key, keyValue), cb.greaterThan(orderId, orderIdValue)));
+        return cb.and(cb.lessThanOrEqualTo(key, keyValue),
+                cb.or(cb.lessThan(key, keyValue), cb.lessThan(orderId, orderIdValue)));
+    }
+
+    private static javax.persistence.criteria.Order order(final CriteriaBuilder cb, final Expression<?> key,
+            final boolean ascending) {
+        return ascending ? cb.asc(key) : cb.desc(key);
+    }
+
+}
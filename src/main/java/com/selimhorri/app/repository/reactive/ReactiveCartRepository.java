@@ -0,0 +1,50 @@
+package com.selimhorri.app.repository.reactive;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.selimhorri.app.dto.CartDto;
+
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC twin of the CartRepository read projections, rows are mapped straight to CartDto.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveCartRepository {
+
+    private static final String CART_DTO_COLUMNS = "SELECT cart_id, user_id, version FROM carts ";
+
+    private final DatabaseClient reactiveDatabaseClient;
+
+    // Keyset page: active carts after the given id
+    public Flux<CartDto> findActiveDtosAfter(final Integer cartId, final int limit) {
+        return this.reactiveDatabaseClient.sql(CART_DTO_COLUMNS
+                        + "WHERE is_active = TRUE AND cart_id > :cartId ORDER BY cart_id LIMIT :limit")
+                .bind("cartId", cartId)
+                .bind("limit", limit)
+                .map((row, metadata) -> map(row))
+                .all();
+    }
+
+    public Mono<CartDto> findActiveDtoById(final Integer cartId) {
+        return this.reactiveDatabaseClient.sql(CART_DTO_COLUMNS + "WHERE is_active = TRUE AND cart_id = :cartId")
+                .bind("cartId", cartId)
+                .map((row, metadata) -> map(row))
+                .one();
+    }
+
+    private static CartDto map(final Row row) {
+        return new CartDto(
+                row.get("cart_id", Integer.class),
+                row.get("user_id", Integer.class),
+                row.get("version", Long.class));
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.selimhorri.app.repository.reactive;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.OrderDto;
+
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC twin of the OrderRepository read projections, rows are mapped straight to OrderDto.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveOrderRepository {
+
+    private static final String ORDER_DTO_COLUMNS =
+            "SELECT order_id, order_date, order_desc, order_fee, status, cart_id, version FROM orders ";
+
+    private final DatabaseClient reactiveDatabaseClient;
+
+    // Keyset page: active orders after the given id
+    public Flux<OrderDto> findActiveDtosAfter(final Integer orderId, final int limit) {
+        return this.reactiveDatabaseClient.sql(ORDER_DTO_COLUMNS
+                        + "WHERE is_active = TRUE AND order_id > :orderId ORDER BY order_id LIMIT :limit")
+                .bind("orderId", orderId)
+                .bind("limit", limit)
+                .map((row, metadata) -> map(row))
+                .all();
+    }
+
+    public Flux<OrderDto> findActiveDtosByCartIds(final Collection<Integer> cartIds, final int limit) {
+        return this.reactiveDatabaseClient.sql(ORDER_DTO_COLUMNS
+                        + "WHERE is_active = TRUE AND cart_id IN (:cartIds) ORDER BY cart_id, order_id LIMIT :limit")
+                .bind("cartIds", cartIds)
+                .bind("limit", limit)
+                .map((row, metadata) -> map(row))
+                .all();
+    }
+
+    // Full export: the driver only pulls as many rows as the subscriber requested
+    public Flux<OrderDto> streamActiveDtos() {
+        return this.reactiveDatabaseClient.sql(ORDER_DTO_COLUMNS + "WHERE is_active = TRUE ORDER BY order_id")
+                .map((row, metadata) -> map(row))
+                .all();
+    }
+
+    public Mono<OrderDto> findActiveDtoById(final Integer orderId) {
+        return this.reactiveDatabaseClient.sql(ORDER_DTO_COLUMNS + "WHERE is_active = TRUE AND order_id = :orderId")
+                .bind("orderId", orderId)
+                .map((row, metadata) -> map(row))
+                .one();
+    }
+
+    private static OrderDto map(final Row row) {
+        final BigDecimal orderFee = row.get("order_fee", BigDecimal.class);
+        return new OrderDto(
+                row.get("order_id", Integer.class),
+                row.get("order_date", LocalDateTime.class),
+                row.get("order_desc", String.class),
+                orderFee == null ? null : orderFee.doubleValue(),
+                OrderStatus.valueOf(row.get("status", String.class)),
+                row.get("cart_id", Integer.class),
+                row.get("version", Long.class));
+    }
+
+}
@@ -11,12 +11,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.CartChangeDto;
 import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.changes.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
 import com.selimhorri.app.service.CartService;
+import com.selimhorri.app.service.IdempotencyService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,29 +36,57 @@ import lombok.extern.slf4j.Slf4j;
 public class CartResource {
 	
 	private final CartService cartService;
+	private final IdempotencyService idempotencyService;
 	
 	@GetMapping
-	public ResponseEntity<DtoCollectionResponse<CartDto>> findAll() {
-		log.info("*** CartDto List, controller; fetch all categories *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.cartService.findAll()));
+	public ResponseEntity<DtoCollectionResponse<CartDto>> findAll(
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "size", required = false) final Integer size,
+			@RequestParam(name = "includeOrders", defaultValue = "false") final boolean includeOrders) {
+		log.info("*** CartDto List, controller; fetch a page of carts *");
+		return ResponseEntity.ok(this.cartService.findAll(cursor, size, includeOrders));
+	}
+	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<CartChangeDto>> findChanges(
+			@RequestParam(name = "since", required = false) final String since,
+			@RequestParam(name = "size", required = false) final Integer size) {
+		log.info("*** CartChangeDto List, resource; fetch carts changed since token *");
+		return ResponseEntity.ok(this.cartService.findChanges(since, size));
 	}
 	
 	@GetMapping("/{cartId}")
 	public ResponseEntity<CartDto> findById(
 			@PathVariable("cartId") 
 			@NotBlank(message = "Input must not be blank") 
-			@Valid final String cartId) {
+			@Valid final String cartId,
+			final WebRequest webRequest) {
 		log.info("*** CartDto, resource; fetch cart by id *");
-		return ResponseEntity.ok(this.cartService.findById(Integer.parseInt(cartId)));
+		// checkNotModified sets the ETag header, and answers 304 when If-None-Match matches it
+		final CartDto cartDto = this.cartService.findById(Integer.parseInt(cartId), webRequest::checkNotModified);
+		return cartDto == null ? null : ResponseEntity.ok(cartDto);
+	}
+	
+	@GetMapping("/{cartId}/orders")
+	public ResponseEntity<DtoCollectionResponse<OrderDto>> findOrdersById(
+			@PathVariable("cartId") 
+			@NotBlank(message = "Input must not be blank") 
+			@Valid final String cartId,
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "size", required = false) final Integer size) {
+		log.info("*** OrderDto List, resource; fetch a page of orders of cart by id *");
+		return ResponseEntity.ok(this.cartService.findOrdersById(Integer.parseInt(cartId), cursor, size));
 	}
 	
 	@PostMapping
 	public ResponseEntity<CartDto> save(
+			@RequestHeader(name = AppConstant.IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey,
 			@RequestBody 
 			@NotNull(message = "Input must not be NULL!") 
 			@Valid final CartDto cartDto) {
 		log.info("*** CartDto, resource; save cart *");
-		return ResponseEntity.ok(this.cartService.save(cartDto));
+		return ResponseEntity.ok(this.idempotencyService.execute(idempotencyKey, "POST /api/carts", cartDto,
+				CartDto.class, () -> this.cartService.save(cartDto)));
 	}
 	
 	@DeleteMapping("/{cartId}")
@@ -1,9 +1,18 @@
 package com.selimhorri.app.resource;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,12 +21,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.selimhorri.app.constant.AppConstant;
 import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.OrderChangeDto;
 import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderSearchCriteria;
+import com.selimhorri.app.dto.OrderSummaryDto;
+import com.selimhorri.app.dto.response.batch.BatchItemResponse;
+import com.selimhorri.app.dto.response.changes.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.service.IdempotencyService;
 import com.selimhorri.app.service.OrderService;
 
 import lombok.RequiredArgsConstructor;
@@ -30,25 +49,109 @@ import lombok.extern.slf4j.Slf4j;
 public class OrderResource {
 
 	private final OrderService orderService;
+	private final IdempotencyService idempotencyService;
 
 	@GetMapping
-	public ResponseEntity<DtoCollectionResponse<OrderDto>> findAll() {
-		log.info("*** OrderDto List, controller; fetch all orders *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.orderService.findAll()));
+	public ResponseEntity<DtoCollectionResponse<OrderDto>> findAll(
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "size", required = false) final Integer size) {
+		log.info("*** OrderDto List, controller; fetch a page of orders *");
+		return ResponseEntity.ok(this.orderService.findAll(cursor, size));
+	}
+
+	@GetMapping("/user/{userId}")
+	public ResponseEntity<DtoCollectionResponse<OrderDto>> findAllByUserId(
+			@PathVariable("userId") final Integer userId,
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "size", required = false) final Integer size) {
+		log.info("*** OrderDto List, resource; fetch a page of orders by user id *");
+		return ResponseEntity.ok(this.orderService.findAllByUserId(userId, cursor, size));
+	}
+
+	// Every OrderSearchCriteria field is an optional query parameter (status, from, to, minFee, maxFee, cartId, userId, sort, direction)
+	@GetMapping("/search")
+	public ResponseEntity<DtoCollectionResponse<OrderDto>> search(
+			final OrderSearchCriteria criteria,
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "size", required = false) final Integer size) {
+		log.info("*** OrderDto List, resource; search a page of orders *");
+		return ResponseEntity.ok(this.orderService.search(criteria, cursor, size));
+	}
+
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<OrderChangeDto>> findChanges(
+			@RequestParam(name = "since", required = false) final String since,
+			@RequestParam(name = "size", required = false) final Integer size) {
+		log.info("*** OrderChangeDto List, resource; fetch orders changed since token *");
+		return ResponseEntity.ok(this.orderService.findChanges(since, size));
+	}
+
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public void exportAll(final HttpServletResponse response) throws IOException {
+		log.info("*** OrderDto Stream, resource; export all orders as ndjson *");
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		this.orderService.exportAll(response.getOutputStream());
+	}
+
+	@GetMapping("/summary")
+	public ResponseEntity<OrderSummaryDto> summarize() {
+		log.info("*** OrderSummaryDto, resource; summarize orders *");
+		return ResponseEntity.ok(this.orderService.summarize());
+	}
+
+	@GetMapping("/summary/status")
+	public ResponseEntity<DtoCollectionResponse<OrderSummaryDto>> summarizeByStatus() {
+		log.info("*** OrderSummaryDto List, resource; summarize orders by status *");
+		return ResponseEntity.ok(this.orderService.summarizeByStatus());
+	}
+
+	@GetMapping("/summary/daily")
+	public ResponseEntity<DtoCollectionResponse<OrderSummaryDto>> summarizeByDay(
+			@RequestParam(name = "from", required = false) @DateTimeFormat(pattern = AppConstant.LOCAL_DATE_FORMAT) final LocalDate from,
+			@RequestParam(name = "to", required = false) @DateTimeFormat(pattern = AppConstant.LOCAL_DATE_FORMAT) final LocalDate to) {
+		log.info("*** OrderSummaryDto List, resource; summarize orders by day *");
+		return ResponseEntity.ok(this.orderService.summarizeByDay(from, to));
+	}
+
+	@GetMapping("/summary/carts")
+	public ResponseEntity<DtoCollectionResponse<OrderSummaryDto>> summarizeByCart(
+			@RequestParam(name = "size", required = false) final Integer size) {
+		log.info("*** OrderSummaryDto List, resource; summarize orders by cart *");
+		return ResponseEntity.ok(this.orderService.summarizeByCart(size));
+	}
+
+	@GetMapping("/summary/users")
+	public ResponseEntity<DtoCollectionResponse<OrderSummaryDto>> summarizeByUser(
+			@RequestParam(name = "size", required = false) final Integer size) {
+		log.info("*** OrderSummaryDto List, resource; summarize orders by user *");
+		return ResponseEntity.ok(this.orderService.summarizeByUser(size));
 	}
 
 	@GetMapping("/{orderId}")
 	public ResponseEntity<OrderDto> findById(
-			@PathVariable("orderId") @NotBlank(message = "Input must not be blank") @Valid final String orderId) {
+			@PathVariable("orderId") @NotBlank(message = "Input must not be blank") @Valid final String orderId,
+			final WebRequest webRequest) {
 		log.info("*** OrderDto, resource; fetch order by id *");
-		return ResponseEntity.ok(this.orderService.findById(Integer.parseInt(orderId)));
+		// checkNotModified sets the ETag header, and answers 304 when If-None-Match matches it
+		final OrderDto orderDto = this.orderService.findById(Integer.parseInt(orderId), webRequest::checkNotModified);
+		return orderDto == null ? null : ResponseEntity.ok(orderDto);
 	}
 
 	@PostMapping
 	public ResponseEntity<OrderDto> save(
+			@RequestHeader(name = AppConstant.IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey,
 			@RequestBody @NotNull(message = "Input must not be NULL") @Valid final OrderDto orderDto) {
 		log.info("*** OrderDto, resource; save order *");
-		return ResponseEntity.ok(this.orderService.save(orderDto));
+		return ResponseEntity.ok(this.idempotencyService.execute(idempotencyKey, "POST /api/orders", orderDto,
+				OrderDto.class, () -> this.orderService.save(orderDto)));
+	}
+
+	@PostMapping("/batch")
+	public ResponseEntity<DtoCollectionResponse<BatchItemResponse<OrderDto>>> saveAll(
+			@RequestBody @NotNull(message = "Input must not be NULL") @Valid final List<OrderDto> orderDtos) {
+		log.info("*** OrderDto List, resource; save orders in batch *");
+		return ResponseEntity.ok(this.orderService.saveAll(orderDtos));
 	}
 
 	@PatchMapping("/{orderId}/status")
@@ -66,6 +169,13 @@ public class OrderResource {
 		return ResponseEntity.ok(this.orderService.update(Integer.parseInt(orderId), orderDto));
 	}
 
+	@DeleteMapping(params = "ids")
+	public ResponseEntity<Integer> deleteAllById(
+			@RequestParam("ids") @NotNull(message = "Input must not be NULL") final List<Integer> orderIds) {
+		log.info("*** Integer, resource; delete orders by ids *");
+		return ResponseEntity.ok(this.orderService.deleteAllById(orderIds));
+	}
+
 	@DeleteMapping("/{orderId}")
 	public ResponseEntity<Boolean> deleteById(@PathVariable("orderId") final String orderId) {
 		log.info("*** Boolean, resource; delete order by id *");
@@ -0,0 +1,41 @@
+package com.selimhorri.app.resource.reactive;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.selimhorri.app.service.ReactiveCartService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * GET routes of CartResource on the reactive read server, same paths and payloads.
+ */
+@Component
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class CartReactiveHandler {
+	
+	private final ReactiveCartService reactiveCartService;
+	
+	public Mono<ServerResponse> findAll(final ServerRequest request) {
+		log.info("*** CartDto List, reactive handler; fetch a page of carts *");
+		return this.reactiveCartService.findAll(
+						request.queryParam("cursor").orElse(null),
+						request.queryParam("size").map(Integer::valueOf).orElse(null),
+						request.queryParam("includeOrders").map(Boolean::parseBoolean).orElse(false))
+				.flatMap(page -> ServerResponse.ok().bodyValue(page));
+	}
+	
+	public Mono<ServerResponse> findById(final ServerRequest request) {
+		log.info("*** CartDto, reactive handler; fetch cart by id *");
+		final Integer cartId = Integer.valueOf(request.pathVariable("cartId"));
+		return ConditionalGet.okOrNotModified(request,
+				notModified -> this.reactiveCartService.findById(cartId, notModified));
+	}
+	
+}
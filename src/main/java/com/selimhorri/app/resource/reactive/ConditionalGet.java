@@ -0,0 +1,46 @@
+package com.selimhorri.app.resource.reactive;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Functional-endpoint version of WebRequest.checkNotModified: the lookup gets a predicate
+ * telling whether If-None-Match names its ETag, and completes empty in that case.
+ */
+final class ConditionalGet {
+	
+	private ConditionalGet() {
+	}
+	
+	static <T> Mono<ServerResponse> okOrNotModified(final ServerRequest request,
+			final Function<Predicate<String>, Mono<T>> lookup) {
+		final List<String> ifNoneMatch = request.headers().header(HttpHeaders.IF_NONE_MATCH);
+		final AtomicReference<String> eTag = new AtomicReference<>();
+		return lookup.apply(candidate -> {
+					eTag.set(candidate);
+					return matches(ifNoneMatch, candidate);
+				})
+				.flatMap(body -> ServerResponse.ok().eTag(eTag.get()).bodyValue(body))
+				.switchIfEmpty(Mono.defer(() -> ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build()));
+	}
+	
+	// Weak comparison, as for GET in RFC 7232
+	private static boolean matches(final List<String> ifNoneMatch, final String eTag) {
+		return ifNoneMatch.stream()
+				.flatMap(header -> Arrays.stream(header.split(",")))
+				.map(String::trim)
+				.map(candidate -> candidate.startsWith("W/") ? candidate.substring(2) : candidate)
+				.anyMatch(candidate -> candidate.equals("*") || candidate.equals(eTag));
+	}
+	
+}
@@ -0,0 +1,50 @@
+package com.selimhorri.app.resource.reactive;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.service.ReactiveOrderService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * GET routes of OrderResource on the reactive read server, same paths and payloads.
+ */
+@Component
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class OrderReactiveHandler {
+	
+	private final ReactiveOrderService reactiveOrderService;
+	
+	public Mono<ServerResponse> findAll(final ServerRequest request) {
+		log.info("*** OrderDto List, reactive handler; fetch a page of orders *");
+		return this.reactiveOrderService.findAll(
+						request.queryParam("cursor").orElse(null),
+						request.queryParam("size").map(Integer::valueOf).orElse(null))
+				.flatMap(page -> ServerResponse.ok().bodyValue(page));
+	}
+	
+	public Mono<ServerResponse> exportAll(final ServerRequest request) {
+		log.info("*** OrderDto Stream, reactive handler; export all orders as ndjson *");
+		// Rows are read from the database only as fast as the client drains the socket
+		return ServerResponse.ok()
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.body(this.reactiveOrderService.exportAll(), OrderDto.class);
+	}
+	
+	public Mono<ServerResponse> findById(final ServerRequest request) {
+		log.info("*** OrderDto, reactive handler; fetch order by id *");
+		final Integer orderId = Integer.valueOf(request.pathVariable("orderId"));
+		return ConditionalGet.okOrNotModified(request,
+				notModified -> this.reactiveOrderService.findById(orderId, notModified));
+	}
+	
+}
@@ -1,13 +1,20 @@
 package com.selimhorri.app.service;
 
-import java.util.List;
+import java.util.function.Predicate;
 
+import com.selimhorri.app.dto.CartChangeDto;
 import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.changes.ChangeFeedResponse;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
 
 public interface CartService {
 	
-	List<CartDto> findAll();
+	DtoCollectionResponse<CartDto> findAll(final String cursor, final Integer size, final boolean includeOrders);
+	ChangeFeedResponse<CartChangeDto> findChanges(final String since, final Integer size);
 	CartDto findById(final Integer cartId);
+	CartDto findById(final Integer cartId, final Predicate<String> notModified);
+	DtoCollectionResponse<OrderDto> findOrdersById(final Integer cartId, final String cursor, final Integer size);
 	CartDto save(final CartDto cartDto);
 	void deleteById(final Integer cartId);
 	
@@ -0,0 +1,17 @@
+package com.selimhorri.app.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+	
+	/**
+	 * Runs the action once per idempotency key, a repeated key with the same operation and
+	 * request replays the stored response, with a different one it is rejected. Without a
+	 * key the action simply runs.
+	 */
+	<T> T execute(final String idempotencyKey, final String operation, final Object request,
+			final Class<T> responseType, final Supplier<T> action);
+	
+	int purgeExpired();
+	
+}
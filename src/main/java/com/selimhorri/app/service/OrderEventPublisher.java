@@ -0,0 +1,15 @@
+package com.selimhorri.app.service;
+
+import java.util.List;
+
+import com.selimhorri.app.dto.OrderEventDto;
+
+/**
+ * Delivers relayed outbox events to consumers. The batch is only marked as published
+ * once this returns, so throwing makes the relay retry the whole batch later.
+ */
+public interface OrderEventPublisher {
+	
+	void publish(final List<OrderEventDto> orderEventDtos);
+	
+}
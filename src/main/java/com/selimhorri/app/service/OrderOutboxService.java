@@ -0,0 +1,20 @@
+package com.selimhorri.app.service;
+
+import java.util.Collection;
+
+import com.selimhorri.app.domain.enums.OrderEventType;
+import com.selimhorri.app.dto.OrderDto;
+
+public interface OrderOutboxService {
+	
+	/**
+	 * Must run inside the transaction making the change, the event commits or rolls back with it.
+	 */
+	void record(final OrderEventType eventType, final OrderDto orderDto);
+	void recordAll(final OrderEventType eventType, final Collection<OrderDto> orderDtos);
+	void recordDeleted(final Collection<Integer> orderIds);
+	
+	int relay();
+	int purgePublished();
+	
+}
@@ -1,16 +1,39 @@
 package com.selimhorri.app.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
 
+import com.selimhorri.app.dto.OrderChangeDto;
 import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderSearchCriteria;
+import com.selimhorri.app.dto.OrderSummaryDto;
+import com.selimhorri.app.dto.response.batch.BatchItemResponse;
+import com.selimhorri.app.dto.response.changes.ChangeFeedResponse;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
 
 public interface OrderService {
 	
-	List<OrderDto> findAll();
+	DtoCollectionResponse<OrderDto> findAll(final String cursor, final Integer size);
+	DtoCollectionResponse<OrderDto> findAllByUserId(final Integer userId, final String cursor, final Integer size);
+	DtoCollectionResponse<OrderDto> search(final OrderSearchCriteria criteria, final String cursor, final Integer size);
+	ChangeFeedResponse<OrderChangeDto> findChanges(final String since, final Integer size);
 	OrderDto findById(final Integer orderId);
+	OrderDto findById(final Integer orderId, final Predicate<String> notModified);
+	long exportAll(final OutputStream outputStream) throws IOException;
+	OrderSummaryDto summarize();
+	DtoCollectionResponse<OrderSummaryDto> summarizeByStatus();
+	DtoCollectionResponse<OrderSummaryDto> summarizeByDay(final LocalDate from, final LocalDate to);
+	DtoCollectionResponse<OrderSummaryDto> summarizeByCart(final Integer size);
+	DtoCollectionResponse<OrderSummaryDto> summarizeByUser(final Integer size);
 	OrderDto save(final OrderDto orderDto);
+	DtoCollectionResponse<BatchItemResponse<OrderDto>> saveAll(final List<OrderDto> orderDtos);
 	OrderDto updateStatus(final int orderId);
 	OrderDto update(final Integer orderId, final OrderDto orderDto);
 	void deleteById(final Integer orderId);
+	int deleteAllById(final Collection<Integer> orderIds);
 	
 }
@@ -0,0 +1,22 @@
+package com.selimhorri.app.service;
+
+import java.util.function.Predicate;
+
+import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only, non-blocking counterpart of CartService for the reactive profile.
+ */
+public interface ReactiveCartService {
+	
+	Mono<DtoCollectionResponse<CartDto>> findAll(final String cursor, final Integer size, final boolean includeOrders);
+	
+	/**
+	 * Completes empty when notModified accepts the ETag of the cart, without calling USER-SERVICE.
+	 */
+	Mono<CartDto> findById(final Integer cartId, final Predicate<String> notModified);
+	
+}
@@ -0,0 +1,24 @@
+package com.selimhorri.app.service;
+
+import java.util.function.Predicate;
+
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only, non-blocking counterpart of OrderService for the reactive profile.
+ */
+public interface ReactiveOrderService {
+	
+	Mono<DtoCollectionResponse<OrderDto>> findAll(final String cursor, final Integer size);
+	Flux<OrderDto> exportAll();
+	
+	/**
+	 * Completes empty when notModified accepts the ETag of the order.
+	 */
+	Mono<OrderDto> findById(final Integer orderId, final Predicate<String> notModified);
+	
+}
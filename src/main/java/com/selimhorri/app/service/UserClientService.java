@@ -0,0 +1,34 @@
+package com.selimhorri.app.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import com.selimhorri.app.dto.UserDto;
+
+import reactor.core.publisher.Mono;
+
+public interface UserClientService {
+	
+	/**
+	 * Empty when USER-SERVICE answers 404, other remote errors are thrown.
+	 */
+	Optional<UserDto> findById(final Integer userId);
+	
+	/**
+	 * Fetches each distinct user once; users answered with 404 map to an empty
+	 * Optional and users whose call failed are left out of the map.
+	 */
+	Map<Integer, Optional<UserDto>> findAllByIds(final Collection<Integer> userIds);
+	
+	/**
+	 * Non-blocking findById, for callers already on a reactive pipeline.
+	 */
+	Mono<Optional<UserDto>> findByIdAsync(final Integer userId);
+	
+	/**
+	 * Non-blocking findAllByIds, for callers already on a reactive pipeline.
+	 */
+	Mono<Map<Integer, Optional<UserDto>>> findAllByIdsAsync(final Collection<Integer> userIds);
+	
+}
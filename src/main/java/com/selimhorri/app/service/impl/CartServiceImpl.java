@@ -1,27 +1,39 @@
 package com.selimhorri.app.service.impl;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-import javax.transaction.Transactional;
-
-import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.reactive.function.client.WebClientException;
 
 import com.selimhorri.app.constant.AppConstant;
-import com.selimhorri.app.domain.Cart;
+import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.CartChangeDto;
 import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.OrderDto;
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.changes.ChangeFeedResponse;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
 import com.selimhorri.app.exception.wrapper.CartNotFoundException;
 import com.selimhorri.app.exception.wrapper.UserNotFoundException;
 import com.selimhorri.app.helper.CartMappingHelper;
+import com.selimhorri.app.helper.ChangeFeedHelper;
+import com.selimhorri.app.helper.PageCursorHelper;
 import com.selimhorri.app.repository.CartRepository;
+import com.selimhorri.app.repository.OrderRepository;
 import com.selimhorri.app.service.CartService;
+import com.selimhorri.app.service.OrderOutboxService;
+import com.selimhorri.app.service.UserClientService;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,51 +44,84 @@ import lombok.extern.slf4j.Slf4j;
 public class CartServiceImpl implements CartService {
 
 	private final CartRepository cartRepository;
-	@LoadBalanced
-	private final RestTemplate restTemplate;
+	private final OrderRepository orderRepository;
+	private final OrderOutboxService orderOutboxService;
+	private final UserClientService userClientService;
 
 	@Override
-	public List<CartDto> findAll() {
-		log.info("*** CartDto List, service; fetch all active carts *");
-		return this.cartRepository.findAllByIsActiveTrue()
-				.stream()
-				.map(CartMappingHelper::map)
-				.map(c -> {
-					try {
-						c.setUserDto(this.restTemplate.getForObject(
-								AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL + "/"
-										+ c.getUserDto().getUserId(),
-								UserDto.class));
-						return c;
-					} catch (HttpClientErrorException.NotFound e) {
-						log.warn("User not found for userId: {} - {}", c.getUserDto().getUserId(), e.getMessage());
-						return c; // Devuelve el carrito sin datos de usuario
-					} catch (Exception e) {
-						log.error("Error fetching user data for userId: {}", c.getUserDto().getUserId(), e);
-						return null; // Filtra otros errores
-					}
-				})
-				.filter(Objects::nonNull) // Filtra nulos (solo si devuelves null en otros casos)
-				.distinct()
-				.collect(Collectors.toUnmodifiableList());
+	@Timed(value = "cart.service", histogram = true)
+	// No transaction around the USER-SERVICE calls: each query releases its connection right away
+	@Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+	public DtoCollectionResponse<CartDto> findAll(final String cursor, final Integer size, final boolean includeOrders) {
+		log.info("*** CartDto List, service; fetch a page of active carts *");
+		final int pageSize = PageCursorHelper.pageSize(size);
+		// Fetch one extra row to know whether a next page exists
+		final DtoCollectionResponse<CartDto> page = PageCursorHelper.page(
+				this.cartRepository.findActiveDtosAfter(
+						PageCursorHelper.decodeId(cursor), PageRequest.of(0, pageSize + 1)),
+				pageSize,
+				c -> new Object[] { c.getCartId() });
+		page.setCollection(this.enrichWithUsers(page.getCollection()));
+		return includeOrders ? this.attachOrders(page) : page;
 	}
 
 	@Override
+	@Timed(value = "cart.service", histogram = true)
+	// Not readOnly, so it stays on the primary where the settle window holds
+	public ChangeFeedResponse<CartChangeDto> findChanges(final String since, final Integer size) {
+		log.info("*** CartChangeDto List, service; fetch carts changed since token *");
+		final int pageSize = PageCursorHelper.pageSize(size);
+		// Bare rows, consumers of the feed resolve users on their side
+		return ChangeFeedHelper.feed(
+				this.cartRepository.findChangesAfter(
+						ChangeFeedHelper.decodeUpdatedAt(since), ChangeFeedHelper.decodeId(since),
+						ChangeFeedHelper.settledBefore(), PageRequest.of(0, pageSize + 1)),
+				pageSize,
+				since,
+				c -> new Object[] { c.getUpdatedAt(), c.getCartId() });
+	}
+
+	@Override
+	@Timed(value = "cart.service", histogram = true)
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public CartDto findById(final Integer cartId) {
+		return this.findById(cartId, eTag -> false);
+	}
+
+	@Override
+	@Timed(value = "cart.service", histogram = true)
+	// Not readOnly, so the cached lookup is filled from the primary and never from a lagging replica
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public CartDto findById(final Integer cartId, final Predicate<String> notModified) {
 		log.info("*** CartDto, service; fetch active cart by id *");
-		return this.cartRepository.findByCartIdAndIsActiveTrue(cartId) // Cambiado para buscar solo activos
-				.map(CartMappingHelper::map)
-				.map(c -> {
-					c.setUserDto(this.restTemplate.getForObject(
-							AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL + "/" + c.getUserDto().getUserId(),
-							UserDto.class));
-					return c;
-				})
+		final CartDto cartDto = this.cartRepository.findActiveDtoById(cartId) // Cambiado para buscar solo activos
 				.orElseThrow(() -> new CartNotFoundException(
 						String.format("Active cart with id: %d not found", cartId)));
+		// Validated before the USER-SERVICE call; user details are not part of the ETag
+		if (notModified.test("\"" + cartDto.getVersion() + "\""))
+			return null;
+		this.userClientService.findById(cartDto.getUserId())
+				.ifPresent(cartDto::setUserDto);
+		return cartDto;
+	}
+
+	@Override
+	@Timed(value = "cart.service", histogram = true)
+	@Transactional(readOnly = true)
+	public DtoCollectionResponse<OrderDto> findOrdersById(final Integer cartId, final String cursor, final Integer size) {
+		log.info("*** OrderDto List, service; fetch a page of active orders of active cart *");
+		if (!this.cartRepository.existsActiveById(cartId))
+			throw new CartNotFoundException(String.format("Active cart with id: %d not found", cartId));
+		final int pageSize = PageCursorHelper.pageSize(size);
+		return PageCursorHelper.page(
+				this.orderRepository.findActiveDtosByCartIdAfter(
+						cartId, PageCursorHelper.decodeId(cursor), PageRequest.of(0, pageSize + 1)),
+				pageSize,
+				o -> new Object[] { o.getOrderId() });
 	}
 
 	@Override
+	@Timed(value = "cart.service", histogram = true)
 	public CartDto save(final CartDto cartDto) {
 		log.info("*** CartDto, service; save cart *");
 
@@ -85,17 +130,10 @@ public class CartServiceImpl implements CartService {
 		}
 
 		try {
-			final String url = AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL + "/" + cartDto.getUserId();
-			UserDto userDto = this.restTemplate.getForObject(url, UserDto.class);
-
-			if (userDto == null) {
-				throw new UserNotFoundException(String.format("User with id %d not found", cartDto.getUserId()));
-			}
-
-			cartDto.setUserDto(userDto);
-		} catch (HttpClientErrorException.NotFound ex) {
-			throw new UserNotFoundException(String.format("User with id %d not found", cartDto.getUserId()));
-		} catch (RestClientException ex) {
+			cartDto.setUserDto(this.userClientService.findById(cartDto.getUserId())
+					.orElseThrow(() -> new UserNotFoundException(
+							String.format("User with id %d not found", cartDto.getUserId()))));
+		} catch (WebClientException ex) {
 			throw new RuntimeException("Error verifying user existence: " + ex.getMessage(), ex);
 		}
 
@@ -105,17 +143,58 @@ public class CartServiceImpl implements CartService {
 	}
 
 	@Override
+	@Timed(value = "cart.service", histogram = true)
 	public void deleteById(final Integer cartId) {
 		log.info("*** Void, service; soft delete cart by id (set isActive=false) *");
 
-		Cart cart = this.cartRepository.findById(cartId)
-				.orElseThrow(() -> new CartNotFoundException(
-						String.format("Cart with id: %d not found", cartId)));
+		final Instant now = Instant.now();
+		if (this.cartRepository.deactivateById(cartId, now) == 0 && !this.cartRepository.existsById(cartId)) {
+			throw new CartNotFoundException(String.format("Cart with id: %d not found", cartId));
+		}
+		// Orders already IN_PAYMENT stay active, the rest follow their cart in one bulk update
+		final List<Integer> orderIds = this.orderRepository.findDeactivatableIdsByCartId(cartId, OrderStatus.IN_PAYMENT);
+		int deactivatedOrders = 0;
+		if (!orderIds.isEmpty()) {
+			deactivatedOrders = this.orderRepository.deactivateAllById(orderIds, OrderStatus.IN_PAYMENT, now);
+			this.orderOutboxService.recordDeleted(orderIds);
+		}
 
-		cart.setActive(false); // Realiza el soft delete
-		this.cartRepository.save(cart); // Guarda el cambio
+		log.debug("Cart with id: {} was soft deleted (isActive set to false) with {} of its orders",
+				cartId, deactivatedOrders);
+	}
+
+	/**
+	 * Joins each cart with its user, fetching every distinct user once. Carts whose
+	 * user lookup failed are dropped, carts of unknown users keep the bare userId.
+	 */
+	private List<CartDto> enrichWithUsers(final Collection<CartDto> cartDtos) {
+		final Map<Integer, Optional<UserDto>> users = this.userClientService.findAllByIds(
+				cartDtos.stream()
+						.map(CartDto::getUserId)
+						.collect(Collectors.toSet()));
+		return cartDtos.stream()
+				.filter(c -> c.getUserId() == null || users.containsKey(c.getUserId()))
+				.map(c -> {
+					if (c.getUserId() != null)
+						users.get(c.getUserId()).ifPresent(c::setUserDto);
+					return c;
+				})
+				.collect(Collectors.toList());
+	}
 
-		log.debug("Cart with id: {} was soft deleted (isActive set to false)", cartId);
+	/**
+	 * Loads the orders of every cart of the page with a single IN query, instead of
+	 * touching the lazy Cart.orders collection once per cart. The query is capped, a page
+	 * that would carry more orders is cut short, see CartMappingHelper.attachOrders.
+	 */
+	private DtoCollectionResponse<CartDto> attachOrders(final DtoCollectionResponse<CartDto> page) {
+		if (page.getCollection().isEmpty())
+			return page;
+		return CartMappingHelper.attachOrders(page, this.orderRepository.findActiveDtosByCartIds(
+				page.getCollection().stream()
+						.map(CartDto::getCartId)
+						.collect(Collectors.toList()),
+				PageRequest.of(0, AppConstant.MAX_EMBEDDED_ORDERS + 1)));
 	}
 
 }
@@ -0,0 +1,166 @@
+package com.selimhorri.app.service.impl;
+
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import javax.transaction.Transactional;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.selimhorri.app.config.idempotency.IdempotencyProperties;
+import com.selimhorri.app.domain.IdempotencyRecord;
+import com.selimhorri.app.exception.wrapper.IdempotencyKeyConflictException;
+import com.selimhorri.app.repository.IdempotencyRecordRepository;
+import com.selimhorri.app.service.IdempotencyService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+	
+	private static final int MAX_KEY_LENGTH = 255;
+	
+	private final IdempotencyRecordRepository idempotencyRecordRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectMapper objectMapper;
+	private final ObjectWriter compactWriter;
+	private final IdempotencyProperties idempotencyProperties;
+	
+	// Committed records only, so a hit never needs the database
+	private final Cache<String, IdempotencyRecord> records;
+	
+	public IdempotencyServiceImpl(final IdempotencyRecordRepository idempotencyRecordRepository,
+			final TransactionTemplate transactionTemplate,
+			final ObjectMapper objectMapper,
+			final IdempotencyProperties idempotencyProperties,
+			final MeterRegistry meterRegistry) {
+		this.idempotencyRecordRepository = idempotencyRecordRepository;
+		this.transactionTemplate = transactionTemplate;
+		this.objectMapper = objectMapper;
+		this.compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+		this.idempotencyProperties = idempotencyProperties;
+		this.records = Caffeine.newBuilder()
+				.maximumSize(idempotencyProperties.getCacheMaximumSize())
+				.expireAfterWrite(idempotencyProperties.getTtl())
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, this.records, "idempotency.records");
+	}
+	
+	@Override
+	public <T> T execute(final String idempotencyKey, final String operation, final Object request,
+			final Class<T> responseType, final Supplier<T> action) {
+		if (idempotencyKey == null)
+			return action.get();
+		if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH)
+			throw new IllegalArgumentException(String.format(
+					"Idempotency-Key must be non blank and at most %d characters", MAX_KEY_LENGTH));
+		
+		log.info("*** {}, service; execute idempotent {} *", responseType.getSimpleName(), operation);
+		// Fingerprint before the action runs, actions may reset ids on their input
+		final String requestHash = this.fingerprint(operation, request);
+		final Optional<T> replayed = this.replay(idempotencyKey, requestHash, responseType);
+		if (replayed.isPresent())
+			return replayed.get();
+		
+		try {
+			// The key is stored in the same transaction as the action: both commit or neither does
+			final IdempotencyRecord stored = this.transactionTemplate.execute(status -> {
+				final T response = action.get();
+				return this.idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+						.idempotencyKey(idempotencyKey)
+						.requestHash(requestHash)
+						.responseBody(this.write(response))
+						.createdAt(Instant.now())
+						.build());
+			});
+			this.records.put(idempotencyKey, stored);
+			return this.read(stored.getResponseBody(), responseType);
+		}
+		catch (DataIntegrityViolationException e) {
+			// A concurrent request with the same key committed first, its work is the one kept
+			log.info("Idempotency-Key {} was stored concurrently, replaying it", idempotencyKey);
+			return this.replay(idempotencyKey, requestHash, responseType)
+					.orElseThrow(() -> e);
+		}
+	}
+	
+	@Override
+	@Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1H}")
+	@Transactional
+	public int purgeExpired() {
+		final int purged = this.idempotencyRecordRepository.deleteAllCreatedBefore(
+				Instant.now().minus(this.idempotencyProperties.getTtl()));
+		log.debug("Purged {} expired idempotency records", purged);
+		return purged;
+	}
+	
+	private <T> Optional<T> replay(final String idempotencyKey, final String requestHash, final Class<T> responseType) {
+		IdempotencyRecord record = this.records.getIfPresent(idempotencyKey);
+		if (record == null) {
+			record = this.idempotencyRecordRepository.findById(idempotencyKey).orElse(null);
+			if (record == null)
+				return Optional.empty();
+			this.records.put(idempotencyKey, record);
+		}
+		if (!record.getRequestHash().equals(requestHash))
+			throw new IdempotencyKeyConflictException(String.format(
+					"Idempotency-Key %s was already used for a different request", idempotencyKey));
+		log.info("*** {}, service; replay stored response of Idempotency-Key *", responseType.getSimpleName());
+		return Optional.of(this.read(record.getResponseBody(), responseType));
+	}
+	
+	private String fingerprint(final String operation, final Object request) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(operation.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) '\n');
+			digest.update(this.compactWriter.writeValueAsBytes(request));
+			return String.format("%064x", new BigInteger(1, digest.digest()));
+		}
+		catch (JsonProcessingException e) {
+			throw new UncheckedIOException("Unable to fingerprint request", e);
+		}
+		catch (NoSuchAlgorithmException e) {
+			// Every Java platform must provide SHA-256
+			throw new AssertionError("Unable to fingerprint request", e);
+		}
+	}
+	
+	private String write(final Object response) {
+		try {
+			return this.compactWriter.writeValueAsString(response);
+		}
+		catch (JsonProcessingException e) {
+			throw new UncheckedIOException("Unable to store idempotent response", e);
+		}
+	}
+	
+	private <T> T read(final String responseBody, final Class<T> responseType) {
+		try {
+			return this.objectMapper.readValue(responseBody, responseType);
+		}
+		catch (JsonProcessingException e) {
+			throw new UncheckedIOException("Unable to replay idempotent response", e);
+		}
+	}
+	
+}
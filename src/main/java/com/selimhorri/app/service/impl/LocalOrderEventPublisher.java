@@ -0,0 +1,44 @@
+package com.selimhorri.app.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import com.selimhorri.app.dto.OrderEventDto;
+import com.selimhorri.app.service.OrderEventPublisher;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process publisher for local runs and tests, keeps the most recent events in memory.
+ */
+@Slf4j
+public class LocalOrderEventPublisher implements OrderEventPublisher {
+	
+	private final int capacity;
+	private final Deque<OrderEventDto> published = new ArrayDeque<>();
+	
+	public LocalOrderEventPublisher(final int capacity) {
+		this.capacity = capacity;
+	}
+	
+	@Override
+	public synchronized void publish(final List<OrderEventDto> orderEventDtos) {
+		log.info("*** OrderEventDto List, publisher; publish {} order events locally *", orderEventDtos.size());
+		orderEventDtos.forEach(orderEventDto -> {
+			if (this.published.size() == this.capacity)
+				this.published.removeFirst();
+			this.published.addLast(orderEventDto);
+		});
+	}
+	
+	public synchronized List<OrderEventDto> getPublished() {
+		return new ArrayList<>(this.published);
+	}
+	
+	public synchronized void clear() {
+		this.published.clear();
+	}
+	
+}
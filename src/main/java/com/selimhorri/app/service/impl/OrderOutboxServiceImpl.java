@@ -0,0 +1,144 @@
+package com.selimhorri.app.service.impl;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.selimhorri.app.config.outbox.OutboxProperties;
+import com.selimhorri.app.domain.OrderOutboxEvent;
+import com.selimhorri.app.domain.enums.OrderEventType;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.helper.OrderEventMappingHelper;
+import com.selimhorri.app.repository.OrderOutboxEventRepository;
+import com.selimhorri.app.service.OrderEventPublisher;
+import com.selimhorri.app.service.OrderOutboxService;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class OrderOutboxServiceImpl implements OrderOutboxService {
+	
+	private final OrderOutboxEventRepository orderOutboxEventRepository;
+	private final OrderEventPublisher orderEventPublisher;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectWriter compactWriter;
+	private final OutboxProperties outboxProperties;
+	
+	public OrderOutboxServiceImpl(final OrderOutboxEventRepository orderOutboxEventRepository,
+			final OrderEventPublisher orderEventPublisher,
+			final TransactionTemplate transactionTemplate,
+			final ObjectMapper objectMapper,
+			final OutboxProperties outboxProperties) {
+		this.orderOutboxEventRepository = orderOutboxEventRepository;
+		this.orderEventPublisher = orderEventPublisher;
+		this.transactionTemplate = transactionTemplate;
+		this.compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+		this.outboxProperties = outboxProperties;
+	}
+	
+	@Override
+	@Transactional(TxType.MANDATORY)
+	public void record(final OrderEventType eventType, final OrderDto orderDto) {
+		this.orderOutboxEventRepository.save(this.event(eventType, orderDto, Instant.now()));
+	}
+	
+	@Override
+	@Transactional(TxType.MANDATORY)
+	public void recordAll(final OrderEventType eventType, final Collection<OrderDto> orderDtos) {
+		final Instant now = Instant.now();
+		// Pooled ids, so these go out as JDBC batches alongside the orders themselves
+		this.orderOutboxEventRepository.saveAll(orderDtos.stream()
+				.map(orderDto -> this.event(eventType, orderDto, now))
+				.collect(Collectors.toList()));
+	}
+	
+	@Override
+	@Transactional(TxType.MANDATORY)
+	public void recordDeleted(final Collection<Integer> orderIds) {
+		final Instant now = Instant.now();
+		this.orderOutboxEventRepository.saveAll(orderIds.stream()
+				.map(orderId -> OrderOutboxEvent.builder()
+						.orderId(orderId)
+						.eventType(OrderEventType.DELETED)
+						.createdAt(now)
+						.build())
+				.collect(Collectors.toList()));
+	}
+	
+	/**
+	 * Publishes pending events oldest first, one transaction per batch. Delivery is at least
+	 * once: a batch is re-sent if marking it fails, or if two instances relay concurrently.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${app.outbox.relay-interval:PT1S}")
+	public int relay() {
+		final int batchSize = this.outboxProperties.getBatchSize();
+		int relayed = 0;
+		try {
+			int batch;
+			do {
+				batch = this.transactionTemplate.execute(status -> {
+					final List<OrderOutboxEvent> events = this.orderOutboxEventRepository.findUnpublished(
+							PageRequest.of(0, batchSize));
+					if (events.isEmpty())
+						return 0;
+					this.orderEventPublisher.publish(events.stream()
+							.map(OrderEventMappingHelper::map)
+							.collect(Collectors.toList()));
+					this.orderOutboxEventRepository.markPublished(events.stream()
+							.map(OrderOutboxEvent::getEventId)
+							.collect(Collectors.toList()), Instant.now());
+					return events.size();
+				});
+				relayed += batch;
+			} while (batch == batchSize);
+		}
+		catch (RuntimeException e) {
+			log.error("Order event relay stopped after {} events, pending ones are retried on the next run", relayed, e);
+		}
+		if (relayed > 0)
+			log.debug("Relayed {} order events", relayed);
+		return relayed;
+	}
+	
+	@Override
+	@Scheduled(fixedDelayString = "PT1H")
+	@Transactional
+	public int purgePublished() {
+		final int purged = this.orderOutboxEventRepository.deleteAllPublishedBefore(
+				Instant.now().minus(this.outboxProperties.getRetention()));
+		log.debug("Purged {} published order events", purged);
+		return purged;
+	}
+	
+	private OrderOutboxEvent event(final OrderEventType eventType, final OrderDto orderDto, final Instant now) {
+		try {
+			return OrderOutboxEvent.builder()
+					.orderId(orderDto.getOrderId())
+					.eventType(eventType)
+					.orderStatus(orderDto.getOrderStatus())
+					.payload(this.compactWriter.writeValueAsString(orderDto))
+					.createdAt(now)
+					.build();
+		}
+		catch (JsonProcessingException e) {
+			throw new UncheckedIOException("Unable to serialize order event", e);
+		}
+	}
+	
+}
@@ -1,23 +1,56 @@
 package com.selimhorri.app.service.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityNotFoundException;
-import javax.transaction.Transactional;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.selimhorri.app.constant.AppConstant;
 import com.selimhorri.app.domain.Order;
+import com.selimhorri.app.domain.enums.OrderEventType;
 import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.OrderChangeDto;
 import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderSearchCriteria;
+import com.selimhorri.app.dto.OrderSummaryDto;
+import com.selimhorri.app.dto.response.batch.BatchItemResponse;
+import com.selimhorri.app.dto.response.changes.ChangeFeedResponse;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
 import com.selimhorri.app.exception.wrapper.CartNotFoundException;
 import com.selimhorri.app.exception.wrapper.OrderNotFoundException;
+import com.selimhorri.app.helper.ChangeFeedHelper;
 import com.selimhorri.app.helper.OrderMappingHelper;
+import com.selimhorri.app.helper.PageCursorHelper;
 import com.selimhorri.app.repository.CartRepository;
 import com.selimhorri.app.repository.OrderRepository;
+import com.selimhorri.app.service.OrderOutboxService;
 import com.selimhorri.app.service.OrderService;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -27,29 +60,186 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+        // Allowed status transitions, iterated in the lifecycle order of the enum
+        private static final Map<OrderStatus, OrderStatus> NEXT_STATUS = new EnumMap<>(Map.of(
+                        OrderStatus.CREATED, OrderStatus.ORDERED,
+                        OrderStatus.ORDERED, OrderStatus.IN_PAYMENT));
+
         private final OrderRepository orderRepository;
         private final CartRepository cartRepository;
+        private final OrderOutboxService orderOutboxService;
+        private final ObjectMapper objectMapper;
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        @Transactional(readOnly = true)
+        public DtoCollectionResponse<OrderDto> findAll(final String cursor, final Integer size) {
+                log.info("*** OrderDto List, service; fetch a page of active orders *");
+                final int pageSize = PageCursorHelper.pageSize(size);
+                // Fetch one extra row to know whether a next page exists
+                return PageCursorHelper.page(
+                                this.orderRepository.findActiveDtosAfter(
+                                                PageCursorHelper.decodeId(cursor), PageRequest.of(0, pageSize + 1)),
+                                pageSize,
+                                o -> new Object[] { o.getOrderId() });
+        }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        @Transactional(readOnly = true)
+        public DtoCollectionResponse<OrderDto> findAllByUserId(final Integer userId, final String cursor,
+                        final Integer size) {
+                log.info("*** OrderDto List, service; fetch a page of active orders by user id *");
+                final int pageSize = PageCursorHelper.pageSize(size);
+                // One statement whatever the number of carts of the user, an unknown user is just an empty page
+                return PageCursorHelper.page(
+                                this.orderRepository.findActiveDtosByUserIdAfter(
+                                                userId, PageCursorHelper.decodeId(cursor), PageRequest.of(0, pageSize + 1)),
+                                pageSize,
+                                o -> new Object[] { o.getOrderId() });
+        }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        @Transactional(readOnly = true)
+        public DtoCollectionResponse<OrderDto> search(final OrderSearchCriteria criteria, final String cursor,
+                        final Integer size) {
+                log.info("*** OrderDto List, service; search a page of active orders *");
+                if (criteria.getFrom() != null && criteria.getTo() != null && criteria.getFrom().isAfter(criteria.getTo()))
+                        throw new IllegalArgumentException(String.format("Search range start %s is after its end %s",
+                                        criteria.getFrom(), criteria.getTo()));
+                if (criteria.getMinFee() != null && criteria.getMaxFee() != null
+                                && criteria.getMinFee() > criteria.getMaxFee())
+                        throw new IllegalArgumentException(String.format("Search fee minimum %s is above its maximum %s",
+                                        criteria.getMinFee(), criteria.getMaxFee()));
+                if (criteria.getSort() == null)
+                        criteria.setSort(OrderSearchCriteria.SortKey.ORDER_ID);
+                if (criteria.getDirection() == null)
+                        criteria.setDirection(Direction.ASC);
+                final OrderSearchCriteria.SortKey sort = criteria.getSort();
+                final Direction direction = criteria.getDirection();
+                final int pageSize = PageCursorHelper.pageSize(size);
+                // The cursor holds the sort, its direction, and the sort key and id of the last row
+                return PageCursorHelper.page(
+                                this.orderRepository.searchActiveDtos(criteria,
+                                                decodeSearchCursor(sort, direction, cursor), pageSize + 1),
+                                pageSize,
+                                o -> sort == OrderSearchCriteria.SortKey.ORDER_ID
+                                                ? new Object[] { sort, direction, o.getOrderId() }
+                                                : new Object[] { sort, direction, sort == OrderSearchCriteria.SortKey.ORDER_DATE
+                                                                ? o.getOrderDate()
+                                                                : o.getOrderFee(), o.getOrderId() });
+        }
 
         @Override
-        public List<OrderDto> findAll() {
-                log.info("*** OrderDto List, service; fetch all active orders *");
-                return this.orderRepository.findAllByIsActiveTrue() // Cambia esto
-                                .stream()
-                                .map(OrderMappingHelper::map)
-                                .distinct()
-                                .collect(Collectors.toUnmodifiableList());
+        @Timed(value = "order.service", histogram = true)
+        // Not readOnly, so it stays on the primary: the settle window only covers transactions
+        // committing late, a replica lagging longer would let the token skip changes for good
+        public ChangeFeedResponse<OrderChangeDto> findChanges(final String since, final Integer size) {
+                log.info("*** OrderChangeDto List, service; fetch orders changed since token *");
+                final int pageSize = PageCursorHelper.pageSize(size);
+                return ChangeFeedHelper.feed(
+                                this.orderRepository.findChangesAfter(
+                                                ChangeFeedHelper.decodeUpdatedAt(since), ChangeFeedHelper.decodeId(since),
+                                                ChangeFeedHelper.settledBefore(), PageRequest.of(0, pageSize + 1)),
+                                pageSize,
+                                since,
+                                o -> new Object[] { o.getUpdatedAt(), o.getOrderId() });
         }
 
         @Override
+        @Timed(value = "order.service", histogram = true)
         public OrderDto findById(final Integer orderId) {
+                return this.findById(orderId, eTag -> false);
+        }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        // Not readOnly, so it stays on the primary: the query cache it fills serves the status and
+        // the ETag to every later request, a copy read from a lagging replica would outlive the lag
+        public OrderDto findById(final Integer orderId, final Predicate<String> notModified) {
                 log.info("*** OrderDto, service; fetch active order by id *");
-                return this.orderRepository.findByOrderIdAndIsActiveTrue(orderId) // Cambia esto
-                                .map(OrderMappingHelper::map)
+                final OrderDto orderDto = this.orderRepository.findActiveDtoById(orderId)
                                 .orElseThrow(() -> new OrderNotFoundException(
                                                 String.format("Order with id: %d not found", orderId)));
+                return notModified.test("\"" + orderDto.getVersion() + "\"") ? null : orderDto;
+        }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        @Transactional(readOnly = true)
+        public long exportAll(final OutputStream outputStream) throws IOException {
+                log.info("*** OrderDto Stream, service; export all active orders *");
+                // One compact JSON document per line; rows are projections, so nothing accumulates in the session
+                final ObjectWriter writer = this.objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+                long count = 0;
+                try (final Stream<OrderDto> orders = this.orderRepository.streamActiveDtos();
+                                final JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+                        generator.setRootValueSeparator(null);
+                        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                        final Iterator<OrderDto> iterator = orders.iterator();
+                        while (iterator.hasNext()) {
+                                writer.writeValue(generator, iterator.next());
+                                generator.writeRaw('\n');
+                                if (++count % AppConstant.EXPORT_FLUSH_SIZE == 0)
+                                        generator.flush();
+                        }
+                }
+                log.info("*** OrderDto Stream, service; exported {} orders *", count);
+                return count;
+        }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        @Transactional(readOnly = true)
+        public OrderSummaryDto summarize() {
+                log.info("*** OrderSummaryDto, service; summarize active orders *");
+                return this.orderRepository.summarizeActive();
+        }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        @Transactional(readOnly = true)
+        public DtoCollectionResponse<OrderSummaryDto> summarizeByStatus() {
+                log.info("*** OrderSummaryDto List, service; summarize active orders by status *");
+                return new DtoCollectionResponse<>(this.orderRepository.summarizeActiveByStatus());
+        }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        @Transactional(readOnly = true)
+        public DtoCollectionResponse<OrderSummaryDto> summarizeByDay(final LocalDate from, final LocalDate to) {
+                log.info("*** OrderSummaryDto List, service; summarize active orders by day *");
+                // Both days are inclusive, defaulting to the last DEFAULT_SUMMARY_DAYS days
+                final LocalDate lastDay = to != null ? to : LocalDate.now();
+                final LocalDate firstDay = from != null ? from : lastDay.minusDays(AppConstant.DEFAULT_SUMMARY_DAYS - 1L);
+                if (firstDay.isAfter(lastDay))
+                        throw new IllegalArgumentException(String.format("Summary range start %s is after its end %s",
+                                        firstDay, lastDay));
+                return new DtoCollectionResponse<>(this.orderRepository.summarizeActiveByDay(
+                                firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay()));
+        }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        @Transactional(readOnly = true)
+        public DtoCollectionResponse<OrderSummaryDto> summarizeByCart(final Integer size) {
+                log.info("*** OrderSummaryDto List, service; summarize active orders by cart *");
+                return new DtoCollectionResponse<>(this.orderRepository.summarizeActiveByCart(
+                                PageRequest.of(0, PageCursorHelper.pageSize(size))));
+        }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        @Transactional(readOnly = true)
+        public DtoCollectionResponse<OrderSummaryDto> summarizeByUser(final Integer size) {
+                log.info("*** OrderSummaryDto List, service; summarize active orders by user *");
+                return new DtoCollectionResponse<>(this.orderRepository.summarizeActiveByUser(
+                                PageRequest.of(0, PageCursorHelper.pageSize(size))));
         }
 
         @Override
+        @Timed(value = "order.service", histogram = true)
         public OrderDto save(final OrderDto orderDto) {
                 log.info("*** OrderDto, service; save order *");
                 orderDto.setOrderId(null);
@@ -69,44 +259,103 @@ public class OrderServiceImpl implements OrderService {
                                 });
 
                 // Proceed with saving if validations pass
-                return OrderMappingHelper.map(
+                final OrderDto savedOrderDto = OrderMappingHelper.map(
                                 this.orderRepository.save(OrderMappingHelper.mapForCreationOrder(orderDto)));
+                this.orderOutboxService.record(OrderEventType.CREATED, savedOrderDto);
+                return savedOrderDto;
+        }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        public DtoCollectionResponse<BatchItemResponse<OrderDto>> saveAll(final List<OrderDto> orderDtos) {
+                log.info("*** OrderDto List, service; save orders in batch *");
+                if (orderDtos.size() > AppConstant.MAX_BATCH_SIZE) {
+                        throw new IllegalArgumentException(
+                                        "A batch must not contain more than " + AppConstant.MAX_BATCH_SIZE + " orders");
+                }
+
+                // Validate every referenced cart with a single query, skipped when there is none (IN () fails on MySQL)
+                final Set<Integer> cartIds = orderDtos.stream()
+                                .filter(o -> o != null && o.getCartDto() != null)
+                                .map(o -> o.getCartDto().getCartId())
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet());
+                final Set<Integer> existingCartIds = cartIds.isEmpty()
+                                ? Set.of()
+                                : this.cartRepository.findExistingCartIds(cartIds);
+
+                final List<BatchItemResponse<OrderDto>> results = new ArrayList<>(orderDtos.size());
+                final List<Order> orders = new ArrayList<>();
+                final List<BatchItemResponse<OrderDto>> createdResults = new ArrayList<>();
+                for (int index = 0; index < orderDtos.size(); index++) {
+                        final OrderDto orderDto = orderDtos.get(index);
+                        final BatchItemResponse<OrderDto> result = BatchItemResponse.<OrderDto>builder()
+                                        .index(index)
+                                        .build();
+                        results.add(result);
+                        if (orderDto == null || orderDto.getCartDto() == null || orderDto.getCartDto().getCartId() == null) {
+                                result.setError("Order must be associated with a cart");
+                        } else if (!existingCartIds.contains(orderDto.getCartDto().getCartId())) {
+                                result.setError("Cart not found with ID: " + orderDto.getCartDto().getCartId());
+                        } else {
+                                orderDto.setOrderId(null);
+                                orderDto.setOrderStatus(null);
+                                orders.add(OrderMappingHelper.mapForCreationOrder(orderDto));
+                                createdResults.add(result);
+                        }
+                }
+
+                if (orders.isEmpty()) {
+                        log.info("Batch of {} orders processed, none created", orderDtos.size());
+                        return new DtoCollectionResponse<>(results);
+                }
+
+                // Ids come from the pooled generator, so these inserts are sent as JDBC batches
+                final List<Order> savedOrders = this.orderRepository.saveAll(orders);
+                this.orderRepository.flush();
+                final List<OrderDto> savedOrderDtos = new ArrayList<>(savedOrders.size());
+                for (int i = 0; i < savedOrders.size(); i++) {
+                        final OrderDto savedOrderDto = OrderMappingHelper.map(savedOrders.get(i));
+                        createdResults.get(i).setCreated(true);
+                        createdResults.get(i).setItem(savedOrderDto);
+                        savedOrderDtos.add(savedOrderDto);
+                }
+                this.orderOutboxService.recordAll(OrderEventType.CREATED, savedOrderDtos);
+                log.info("Batch of {} orders processed, {} created", orderDtos.size(), savedOrders.size());
+                return new DtoCollectionResponse<>(results);
         }
 
         @Override
+        @Timed(value = "order.service", histogram = true)
         public OrderDto updateStatus(final int orderId) {
                 log.info("*** OrderDto, service; update order status *");
                 try {
-                        Order existingOrder = this.orderRepository
-                                        .findByOrderIdAndIsActiveTrue(orderId)
+                        // Each step is a conditional UPDATE on the expected current status, so two
+                        // concurrent requests can never both advance from the same status and a
+                        // request that lost the race simply advances from the status it finds
+                        for (final Map.Entry<OrderStatus, OrderStatus> transition : NEXT_STATUS.entrySet()) {
+                                if (this.orderRepository.updateStatusIfCurrent(
+                                                orderId, transition.getKey(), transition.getValue(), Instant.now()) == 1) {
+                                        log.info("Order status updated successfully from {} to {}",
+                                                        transition.getKey(), transition.getValue());
+                                        final OrderDto updatedOrderDto = this.orderRepository.findActiveDtoById(orderId)
+                                                        .orElseThrow(() -> new OrderNotFoundException(
+                                                                        "Order not found with ID: " + orderId));
+                                        this.orderOutboxService.record(OrderEventType.STATUS_CHANGED, updatedOrderDto);
+                                        return updatedOrderDto;
+                                }
+                        }
+
+                        // Nothing matched: tell a missing order apart from a final status
+                        final OrderStatus currentStatus = this.orderRepository.findActiveStatusById(orderId)
                                         .orElseThrow(() -> new OrderNotFoundException(
                                                         "Order not found with ID: " + orderId));
-
-                        // Actualizar al siguiente estado según la secuencia (Java 8+ compatible)
-                        OrderStatus newStatus;
-                        switch (existingOrder.getStatus()) {
-                                case CREATED:
-                                        newStatus = OrderStatus.ORDERED;
-                                        break;
-                                case ORDERED:
-                                        newStatus = OrderStatus.IN_PAYMENT;
-                                        break;
-                                case IN_PAYMENT:
-                                        throw new IllegalStateException(
-                                                        "Order with ID " + orderId
-                                                                        + " is already PAID and cannot be updated further");
-                                default:
-                                        throw new IllegalStateException(
-                                                        "Unknown order status: " + existingOrder.getStatus());
+                        if (currentStatus == OrderStatus.IN_PAYMENT) {
+                                throw new IllegalStateException(
+                                                "Order with ID " + orderId
+                                                                + " is already PAID and cannot be updated further");
                         }
-
-                        existingOrder.setStatus(newStatus);
-                        Order updatedOrder = this.orderRepository.save(existingOrder);
-
-                        log.info("Order status updated successfully from {} to {}",
-                                        existingOrder.getStatus(), newStatus);
-
-                        return OrderMappingHelper.map(updatedOrder);
+                        throw new IllegalStateException("Unknown order status: " + currentStatus);
 
                 } catch (Exception e) {
                         log.error("Error during order status update: ", e);
@@ -115,6 +364,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         @Override
+        @Timed(value = "order.service", histogram = true)
         public OrderDto update(final Integer orderId, final OrderDto orderDto) {
                 log.info("*** OrderDto, service; update order with orderId *");
                 orderDto.setOrderStatus(null);
@@ -126,22 +376,76 @@ public class OrderServiceImpl implements OrderService {
                 orderDto.setOrderStatus(existingOrder.getStatus());
                 Order updatedOrder = OrderMappingHelper.mapForUpdate(orderDto, existingOrder.getCart());
                 updatedOrder.setOrderDate(existingOrder.getOrderDate());
-                return OrderMappingHelper.map(this.orderRepository.save(updatedOrder));
+                updatedOrder.setVersion(existingOrder.getVersion());
+                final OrderDto updatedOrderDto = OrderMappingHelper.map(this.orderRepository.save(updatedOrder));
+                this.orderOutboxService.record(OrderEventType.UPDATED, updatedOrderDto);
+                return updatedOrderDto;
         }
 
         @Override
+        @Timed(value = "order.service", histogram = true)
         public void deleteById(final Integer orderId) {
-                Order order = orderRepository.findByOrderIdAndIsActiveTrue(orderId)
-                                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + orderId));
-
+                log.info("*** Void, service; soft delete order by id *");
                 // Solo permitir borrar si el estado es CREADO o PEDIDO
-                if (order.getStatus() == OrderStatus.IN_PAYMENT) {
+                if (this.orderRepository.deactivateAllById(
+                                List.of(orderId), OrderStatus.IN_PAYMENT, Instant.now()) == 0) {
+                        // Nothing changed: the order is either missing or already IN_PAYMENT
+                        this.orderRepository.findActiveStatusById(orderId)
+                                        .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + orderId));
                         throw new IllegalStateException(
                                         "Cannot delete order with ID " + orderId + " because it's already PAID");
                 }
-
-                order.setActive(false);
-                orderRepository.save(order);
+                this.orderOutboxService.recordDeleted(List.of(orderId));
                 log.info("Order with id {} has been deactivated", orderId);
         }
+
+        @Override
+        @Timed(value = "order.service", histogram = true)
+        public int deleteAllById(final Collection<Integer> orderIds) {
+                log.info("*** Integer, service; soft delete orders by ids *");
+                // An empty IN () is a syntax error on MySQL, and there is nothing to delete anyway
+                if (orderIds.isEmpty())
+                        return 0;
+                if (orderIds.size() > AppConstant.MAX_BATCH_SIZE) {
+                        throw new IllegalArgumentException(
+                                        "A batch must not contain more than " + AppConstant.MAX_BATCH_SIZE + " orders");
+                }
+                // Unknown, inactive and IN_PAYMENT orders are skipped, the count tells how many changed
+                final List<Integer> deactivatableIds = this.orderRepository.findDeactivatableIds(
+                                orderIds, OrderStatus.IN_PAYMENT);
+                if (deactivatableIds.isEmpty())
+                        return 0;
+                final int deactivated = this.orderRepository.deactivateAllById(
+                                deactivatableIds, OrderStatus.IN_PAYMENT, Instant.now());
+                this.orderOutboxService.recordDeleted(deactivatableIds);
+                log.info("{} of {} orders have been deactivated", deactivated, orderIds.size());
+                return deactivated;
+        }
+
+        private static OrderDto decodeSearchCursor(final OrderSearchCriteria.SortKey sort, final Direction direction,
+                        final String cursor) {
+                if (cursor == null || cursor.isBlank())
+                        return null;
+                final String[] keys = PageCursorHelper.decode(cursor,
+                                sort == OrderSearchCriteria.SortKey.ORDER_ID ? 3 : 4);
+                // A cursor replayed with another sort or direction would silently skip or repeat rows
+                if (!sort.name().equals(keys[0]) || !direction.name().equals(keys[1]))
+                        throw new IllegalArgumentException(String.format(
+                                        "Page cursor was issued for sort %s %s, not %s %s", keys[0], keys[1], sort, direction));
+                try {
+                        if (sort == OrderSearchCriteria.SortKey.ORDER_ID)
+                                return OrderDto.builder()
+                                                .orderId(Integer.valueOf(keys[2]))
+                                                .build();
+                        final OrderDto.OrderDtoBuilder after = OrderDto.builder()
+                                        .orderId(Integer.valueOf(keys[3]));
+                        return (sort == OrderSearchCriteria.SortKey.ORDER_DATE
+                                        ? after.orderDate(LocalDateTime.parse(keys[2]))
+                                        : after.orderFee(Double.valueOf(keys[2])))
+                                        .build();
+                }
+                catch (NumberFormatException | DateTimeParseException e) {
+                        throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+                }
+        }
 }
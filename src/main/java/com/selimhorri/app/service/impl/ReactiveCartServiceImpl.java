@@ -0,0 +1,105 @@
+package com.selimhorri.app.service.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.exception.wrapper.CartNotFoundException;
+import com.selimhorri.app.helper.CartMappingHelper;
+import com.selimhorri.app.helper.PageCursorHelper;
+import com.selimhorri.app.repository.reactive.ReactiveCartRepository;
+import com.selimhorri.app.repository.reactive.ReactiveOrderRepository;
+import com.selimhorri.app.service.ReactiveCartService;
+import com.selimhorri.app.service.UserClientService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveCartServiceImpl implements ReactiveCartService {
+	
+	private final ReactiveCartRepository reactiveCartRepository;
+	private final ReactiveOrderRepository reactiveOrderRepository;
+	private final UserClientService userClientService;
+	
+	@Override
+	public Mono<DtoCollectionResponse<CartDto>> findAll(final String cursor, final Integer size, final boolean includeOrders) {
+		// Deferred so an invalid cursor surfaces as an error signal, not a throw on the event loop
+		return Mono.defer(() -> {
+			log.info("*** CartDto List, reactive service; fetch a page of active carts *");
+			final int pageSize = PageCursorHelper.pageSize(size);
+			return this.reactiveCartRepository.findActiveDtosAfter(PageCursorHelper.decodeId(cursor), pageSize + 1)
+					.collectList()
+					.map(rows -> PageCursorHelper.page(rows, pageSize, c -> new Object[] { c.getCartId() }))
+					.flatMap(page -> this.enrichWithUsers(page.getCollection())
+							.map(cartDtos -> {
+								page.setCollection(cartDtos);
+								return page;
+							}))
+					.flatMap(page -> includeOrders ? this.attachOrders(page) : Mono.just(page));
+		});
+	}
+	
+	@Override
+	public Mono<CartDto> findById(final Integer cartId, final Predicate<String> notModified) {
+		log.info("*** CartDto, reactive service; fetch active cart by id *");
+		return this.reactiveCartRepository.findActiveDtoById(cartId)
+				.switchIfEmpty(Mono.error(() -> new CartNotFoundException(
+						String.format("Active cart with id: %d not found", cartId))))
+				// Validated before the USER-SERVICE call; user details are not part of the ETag
+				.filter(cartDto -> !notModified.test("\"" + cartDto.getVersion() + "\""))
+				.flatMap(cartDto -> cartDto.getUserId() == null
+						? Mono.just(cartDto)
+						: this.userClientService.findByIdAsync(cartDto.getUserId())
+								.map(user -> {
+									user.ifPresent(cartDto::setUserDto);
+									return cartDto;
+								}));
+	}
+	
+	/**
+	 * Same join as CartServiceImpl: carts whose user lookup failed are dropped, carts of
+	 * unknown users keep the bare userId.
+	 */
+	private Mono<List<CartDto>> enrichWithUsers(final Collection<CartDto> cartDtos) {
+		return this.userClientService.findAllByIdsAsync(
+				cartDtos.stream()
+						.map(CartDto::getUserId)
+						.collect(Collectors.toSet()))
+				.map(users -> cartDtos.stream()
+						.filter(c -> c.getUserId() == null || users.containsKey(c.getUserId()))
+						.map(c -> {
+							if (c.getUserId() != null)
+								users.get(c.getUserId()).ifPresent(c::setUserDto);
+							return c;
+						})
+						.collect(Collectors.toList()));
+	}
+	
+	/**
+	 * Orders of the whole page in one capped IN query, grouped per cart like CartServiceImpl.
+	 */
+	private Mono<DtoCollectionResponse<CartDto>> attachOrders(final DtoCollectionResponse<CartDto> page) {
+		if (page.getCollection().isEmpty())
+			return Mono.just(page);
+		return this.reactiveOrderRepository.findActiveDtosByCartIds(
+				page.getCollection().stream()
+						.map(CartDto::getCartId)
+						.collect(Collectors.toList()),
+				AppConstant.MAX_EMBEDDED_ORDERS + 1)
+				.collectList()
+				.map(orderDtos -> CartMappingHelper.attachOrders(page, orderDtos));
+	}
+	
+}
@@ -0,0 +1,56 @@
+package com.selimhorri.app.service.impl;
+
+import java.util.function.Predicate;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.exception.wrapper.OrderNotFoundException;
+import com.selimhorri.app.helper.PageCursorHelper;
+import com.selimhorri.app.repository.reactive.ReactiveOrderRepository;
+import com.selimhorri.app.service.ReactiveOrderService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveOrderServiceImpl implements ReactiveOrderService {
+	
+	private final ReactiveOrderRepository reactiveOrderRepository;
+	
+	@Override
+	public Mono<DtoCollectionResponse<OrderDto>> findAll(final String cursor, final Integer size) {
+		// Deferred so an invalid cursor surfaces as an error signal, not a throw on the event loop
+		return Mono.defer(() -> {
+			log.info("*** OrderDto List, reactive service; fetch a page of active orders *");
+			final int pageSize = PageCursorHelper.pageSize(size);
+			// Fetch one extra row to know whether a next page exists
+			return this.reactiveOrderRepository.findActiveDtosAfter(PageCursorHelper.decodeId(cursor), pageSize + 1)
+					.collectList()
+					.map(rows -> PageCursorHelper.page(rows, pageSize, o -> new Object[] { o.getOrderId() }));
+		});
+	}
+	
+	@Override
+	public Flux<OrderDto> exportAll() {
+		log.info("*** OrderDto Stream, reactive service; export all active orders *");
+		return this.reactiveOrderRepository.streamActiveDtos();
+	}
+	
+	@Override
+	public Mono<OrderDto> findById(final Integer orderId, final Predicate<String> notModified) {
+		log.info("*** OrderDto, reactive service; fetch active order by id *");
+		return this.reactiveOrderRepository.findActiveDtoById(orderId)
+				.switchIfEmpty(Mono.error(() -> new OrderNotFoundException(
+						String.format("Order with id: %d not found", orderId))))
+				.filter(orderDto -> !notModified.test("\"" + orderDto.getVersion() + "\""));
+	}
+	
+}
@@ -0,0 +1,162 @@
+package com.selimhorri.app.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.selimhorri.app.config.client.UserClientProperties;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.service.UserClientService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+@Service
+@Slf4j
+public class UserClientServiceImpl implements UserClientService {
+	
+	private final WebClient webClient;
+	private final int parallelism;
+	private final MeterRegistry meterRegistry;
+	
+	private final Cache<Integer, UserDto> users;
+	// Short-lived 404 answers, so unknown ids do not hammer USER-SERVICE either
+	private final Cache<Integer, Boolean> missingUsers;
+	
+	public UserClientServiceImpl(final WebClient.Builder webClientBuilder,
+			final UserClientProperties userClientProperties,
+			final MeterRegistry meterRegistry) {
+		// Cloned, the load-balanced builder is a singleton shared with every other client
+		this.webClient = webClientBuilder.clone()
+				.baseUrl(AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL)
+				.build();
+		this.parallelism = userClientProperties.getParallelism();
+		this.meterRegistry = meterRegistry;
+		
+		final var cacheProperties = userClientProperties.getCache();
+		this.users = Caffeine.newBuilder()
+				.maximumSize(cacheProperties.getMaximumSize())
+				.expireAfterWrite(cacheProperties.getExpireAfterWrite())
+				.expireAfterAccess(cacheProperties.getExpireAfterAccess())
+				.recordStats()
+				.build();
+		this.missingUsers = Caffeine.newBuilder()
+				.maximumSize(cacheProperties.getNegativeMaximumSize())
+				.expireAfterWrite(cacheProperties.getNegativeTtl())
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, this.users, "userClient.users");
+		CaffeineCacheMetrics.monitor(meterRegistry, this.missingUsers, "userClient.missingUsers");
+	}
+	
+	@Override
+	public Optional<UserDto> findById(final Integer userId) {
+		return this.findByIdAsync(userId).block();
+	}
+	
+	@Override
+	public Map<Integer, Optional<UserDto>> findAllByIds(final Collection<Integer> userIds) {
+		return this.findAllByIdsAsync(userIds).block();
+	}
+	
+	@Override
+	public Mono<Optional<UserDto>> findByIdAsync(final Integer userId) {
+		return Mono.defer(() -> {
+			log.info("*** UserDto, service; fetch user by id *");
+			final UserDto cached = this.users.getIfPresent(userId);
+			if (cached != null)
+				return Mono.just(Optional.of(cached));
+			if (this.missingUsers.getIfPresent(userId) != null)
+				return Mono.just(Optional.<UserDto>empty());
+			return this.fetch(userId);
+		});
+	}
+	
+	@Override
+	public Mono<Map<Integer, Optional<UserDto>>> findAllByIdsAsync(final Collection<Integer> userIds) {
+		return Mono.defer(() -> {
+			log.info("*** UserDto Map, service; fetch distinct users *");
+			
+			final Map<Integer, Optional<UserDto>> found = new HashMap<>();
+			final List<Integer> misses = new ArrayList<>();
+			userIds.stream()
+					.filter(Objects::nonNull)
+					.distinct()
+					.forEach(userId -> {
+						final UserDto cached = this.users.getIfPresent(userId);
+						if (cached != null)
+							found.put(userId, Optional.of(cached));
+						else if (this.missingUsers.getIfPresent(userId) != null)
+							found.put(userId, Optional.empty());
+						else
+							misses.add(userId);
+					});
+			if (misses.isEmpty())
+				return Mono.just(found);
+			
+			// USER-SERVICE has no bulk endpoint: all misses go out concurrently on the
+			// pooled non-blocking client, blocking callers only wait for the join
+			return Flux.fromIterable(misses)
+					.flatMap(userId -> this.fetch(userId)
+							.map(user -> Tuples.of(userId, user))
+							.onErrorResume(e -> {
+								log.error("Error fetching user data for userId: {}", userId, e);
+								return Mono.empty();
+							}), this.parallelism)
+					.collectMap(Tuple2::getT1, Tuple2::getT2)
+					.map(fetched -> {
+						found.putAll(fetched);
+						return found;
+					});
+		});
+	}
+	
+	private Mono<Optional<UserDto>> fetch(final Integer userId) {
+		return Mono.defer(() -> {
+			final Timer.Sample sample = Timer.start(this.meterRegistry);
+			return this.webClient.get()
+					.uri("/{userId}", userId)
+					.retrieve()
+					.bodyToMono(UserDto.class)
+					.doOnNext(userDto -> this.users.put(userId, userDto))
+					.map(Optional::of)
+					.defaultIfEmpty(Optional.empty())
+					.onErrorResume(WebClientResponseException.NotFound.class, e -> {
+						log.warn("User not found for userId: {} - {}", userId, e.getMessage());
+						this.missingUsers.put(userId, Boolean.TRUE);
+						return Mono.just(Optional.empty());
+					})
+					.doOnSuccess(user -> sample.stop(this.requestTimer(user.isPresent() ? "found" : "not_found")))
+					.doOnError(e -> sample.stop(this.requestTimer("error")));
+		});
+	}
+	
+	/**
+	 * Latency of the calls that actually reach USER-SERVICE (cache hits are measured by the
+	 * cache metrics), the count of the "error" outcome is the outbound error count.
+	 */
+	private Timer requestTimer(final String outcome) {
+		return Timer.builder("user.client.requests")
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(this.meterRegistry);
+	}
+	
+}
@@ -0,0 +1,11 @@
+CREATE INDEX idx_orders_is_active_order_id ON orders (is_active, order_id);
+
+CREATE INDEX idx_orders_cart_id_is_active ON orders (cart_id, is_active, order_id);
+
+CREATE INDEX idx_orders_is_active_order_date ON orders (is_active, order_date);
+
+CREATE INDEX idx_orders_is_active_status ON orders (is_active, status);
+
+CREATE INDEX idx_carts_is_active_cart_id ON carts (is_active, cart_id);
+
+CREATE INDEX idx_carts_user_id_is_active ON carts (user_id, is_active);
@@ -0,0 +1 @@
+CREATE INDEX idx_orders_is_active_order_fee ON orders (is_active, order_fee, order_id);
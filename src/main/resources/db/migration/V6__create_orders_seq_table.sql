@@ -0,0 +1,6 @@
+CREATE TABLE orders_seq (
+  next_val BIGINT NOT NULL
+);
+
+INSERT INTO orders_seq (next_val)
+SELECT COALESCE(MAX(order_id), 0) + 1 FROM orders;
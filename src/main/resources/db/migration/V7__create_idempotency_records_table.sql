@@ -0,0 +1,8 @@
+CREATE TABLE idempotency_records (
+  idempotency_key VARCHAR(255) NOT NULL PRIMARY KEY,
+  request_hash VARCHAR(64) NOT NULL,
+  response_body VARCHAR(4000) NOT NULL,
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_idempotency_records_created_at ON idempotency_records (created_at);
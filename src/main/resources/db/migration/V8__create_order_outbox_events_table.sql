@@ -0,0 +1,17 @@
+CREATE TABLE order_outbox_events (
+  event_id BIGINT NOT NULL PRIMARY KEY,
+  order_id INT NOT NULL,
+  event_type VARCHAR(20) NOT NULL,
+  order_status VARCHAR(20),
+  payload VARCHAR(4000),
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  published_at TIMESTAMP NULL DEFAULT NULL
+);
+
+CREATE INDEX idx_order_outbox_events_published_at ON order_outbox_events (published_at, event_id);
+
+CREATE TABLE order_outbox_events_seq (
+  next_val BIGINT NOT NULL
+);
+
+INSERT INTO order_outbox_events_seq (next_val) VALUES (1);
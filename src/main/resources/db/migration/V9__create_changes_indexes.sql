@@ -0,0 +1,7 @@
+UPDATE carts SET updated_at = created_at WHERE updated_at IS NULL;
+
+UPDATE orders SET updated_at = created_at WHERE updated_at IS NULL;
+
+CREATE INDEX idx_carts_updated_at_cart_id ON carts (updated_at, cart_id);
+
+CREATE INDEX idx_orders_updated_at_order_id ON orders (updated_at, order_id);
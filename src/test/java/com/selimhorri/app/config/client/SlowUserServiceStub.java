@@ -0,0 +1,63 @@
+package com.selimhorri.app.config.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * USER-SERVICE double for the load tests: answers GET /user-service/api/users/{userId}
+ * with a bare user after a fixed delay, one thread per call in flight.
+ */
+public final class SlowUserServiceStub implements AutoCloseable {
+	
+	private final ExecutorService executor;
+	private final HttpServer server;
+	
+	private SlowUserServiceStub(final ExecutorService executor, final HttpServer server) {
+		this.executor = executor;
+		this.server = server;
+	}
+	
+	public static SlowUserServiceStub start(final long delayMillis, final int backlog) throws IOException {
+		final ExecutorService executor = Executors.newCachedThreadPool();
+		final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), backlog);
+		server.setExecutor(executor);
+		server.createContext("/user-service/api/users/", exchange -> {
+			try {
+				Thread.sleep(delayMillis);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			final String userId = exchange.getRequestURI().getPath().replaceAll(".*/", "");
+			final byte[] body = ("{\"userId\":" + userId + "}").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (final OutputStream outputStream = exchange.getResponseBody()) {
+				outputStream.write(body);
+			}
+		});
+		server.start();
+		return new SlowUserServiceStub(executor, server);
+	}
+	
+	/**
+	 * Command line argument pointing the USER-SERVICE discovery entry at this stub.
+	 */
+	public String discoveryArgument() {
+		return "--spring.cloud.discovery.client.simple.instances.USER-SERVICE[0].uri=http://localhost:"
+				+ this.server.getAddress().getPort();
+	}
+	
+	@Override
+	public void close() {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+	
+}
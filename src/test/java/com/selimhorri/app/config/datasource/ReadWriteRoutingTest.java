@@ -0,0 +1,222 @@
+package com.selimhorri.app.config.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.CartChangeDto;
+import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.OrderChangeDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.helper.PageCursorHelper;
+import com.selimhorri.app.service.CartService;
+import com.selimhorri.app.service.OrderService;
+import com.selimhorri.app.service.UserClientService;
+
+/**
+ * Two local H2 databases stand for the primary and its replica. The replica is migrated
+ * here but never replicated to, so a row changed on one side only shows where a query ran.
+ */
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"spring.zipkin.enabled=false",
+		"app.datasource.replica.jdbc-url=jdbc:h2:mem:ecommerce_replica_db;DB_CLOSE_ON_EXIT=FALSE",
+		"app.datasource.replica.username=sa" })
+class ReadWriteRoutingTest {
+	
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private DataSource primaryDataSource;
+	
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private DataSource replicaDataSource;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private OrderService orderService;
+	
+	@Autowired
+	private CartService cartService;
+	
+	@MockBean
+	private UserClientService userClientService;
+	
+	private JdbcTemplate replicaJdbcTemplate;
+	
+	@BeforeEach
+	void setUp() {
+		Flyway.configure()
+				.dataSource(this.replicaDataSource)
+				.locations("classpath:db/migration")
+				.table("flyway_order_history")
+				.load()
+				.migrate();
+		this.replicaJdbcTemplate = new JdbcTemplate(this.replicaDataSource);
+		this.replicaJdbcTemplate.update("UPDATE orders SET order_desc = 'replica' WHERE order_id = 1");
+		// Cached lookups would not reach either database
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+	}
+	
+	@Test
+	void readOnlyServiceMethodsShouldNeverTouchThePrimary() {
+		final CountingDataSource primary = (CountingDataSource) this.primaryDataSource;
+		primary.watch();
+		
+		assertThat(this.orderService.findAll(null, 10).getCollection())
+				.filteredOn(o -> o.getOrderId() == 1)
+				.singleElement()
+				.extracting(OrderDto::getOrderDesc)
+				.isEqualTo("replica");
+		assertThat(this.orderService.summarize()).isNotNull();
+		assertThat(this.cartService.findOrdersById(1, null, null).getCollection()).isNotEmpty();
+		
+		assertThat(primary.stop()).isZero();
+	}
+	
+	@Test
+	void cachedLookupsShouldFollowThePrimaryWhenTheReplicaIsBehind() {
+		final JdbcTemplate primaryJdbcTemplate = new JdbcTemplate(this.primaryDataSource);
+		primaryJdbcTemplate.update("UPDATE orders SET status = 'CREATED' WHERE order_id = 2");
+		this.replicaJdbcTemplate.update("UPDATE orders SET status = 'CREATED' WHERE order_id = 2");
+		
+		// Fills the query cache, then the update lands on the primary only: the replica is now behind
+		assertThat(this.orderService.findById(2).getOrderStatus()).isEqualTo(OrderStatus.CREATED);
+		final OrderDto updatedOrderDto = this.orderService.updateStatus(2);
+		assertThat(updatedOrderDto.getOrderStatus()).isEqualTo(OrderStatus.ORDERED);
+		
+		// Read twice, the second one from the cache
+		for (int i = 0; i < 2; i++) {
+			final OrderDto orderDto = this.orderService.findById(2);
+			assertThat(orderDto.getOrderStatus()).isEqualTo(OrderStatus.ORDERED);
+			assertThat(orderDto.getVersion()).isEqualTo(updatedOrderDto.getVersion());
+		}
+		assertThat(this.cartService.findById(1).getCartId()).isEqualTo(1);
+		assertThat(this.replicaJdbcTemplate.queryForObject(
+				"SELECT status FROM orders WHERE order_id = 2", String.class)).isEqualTo("CREATED");
+	}
+	
+	@Test
+	void changeFeedsShouldReadThePrimary() {
+		final String token = PageCursorHelper.encode(Instant.parse("1999-06-01T00:00:00Z"), 0);
+		final JdbcTemplate primaryJdbcTemplate = new JdbcTemplate(this.primaryDataSource);
+		primaryJdbcTemplate.update("UPDATE orders SET updated_at = TIMESTAMP '2000-01-01 00:00:00' WHERE order_id = 3");
+		primaryJdbcTemplate.update("UPDATE carts SET updated_at = TIMESTAMP '2000-01-01 00:00:00' WHERE cart_id = 3");
+		
+		try {
+			// Changed on the primary only, a feed read from the replica would miss them
+			assertThat(this.orderService.findChanges(token, 1).getCollection())
+					.extracting(OrderChangeDto::getOrderId)
+					.containsExactly(3);
+			assertThat(this.cartService.findChanges(token, 1).getCollection())
+					.extracting(CartChangeDto::getCartId)
+					.containsExactly(3);
+		}
+		finally {
+			// Other feed tests start from the same year
+			primaryJdbcTemplate.update("UPDATE orders SET updated_at = CURRENT_TIMESTAMP WHERE order_id = 3");
+			primaryJdbcTemplate.update("UPDATE carts SET updated_at = CURRENT_TIMESTAMP WHERE cart_id = 3");
+		}
+	}
+	
+	@Test
+	void writesShouldGoToThePrimary() {
+		final CountingDataSource primary = (CountingDataSource) this.primaryDataSource;
+		primary.watch();
+		
+		final Integer orderId = this.orderService.save(OrderDto.builder()
+				.orderDesc("routing")
+				.orderFee(10.0)
+				.cartDto(CartDto.builder()
+						.cartId(1)
+						.build())
+				.build())
+				.getOrderId();
+		
+		assertThat(primary.stop()).isPositive();
+		assertThat(new JdbcTemplate(primary).queryForObject(
+				"SELECT COUNT(*) FROM orders WHERE order_id = ?", Integer.class, orderId)).isEqualTo(1);
+		assertThat(this.replicaJdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM orders WHERE order_id = ?", Integer.class, orderId)).isZero();
+	}
+	
+	/**
+	 * Counts the connections the test thread takes from the primary pool, background work
+	 * such as the outbox relay is left out.
+	 */
+	static class CountingDataSource extends DelegatingDataSource {
+		
+		private final AtomicInteger connections = new AtomicInteger();
+		private volatile Thread watchedThread;
+		
+		CountingDataSource(final DataSource targetDataSource) {
+			super(targetDataSource);
+		}
+		
+		void watch() {
+			this.connections.set(0);
+			this.watchedThread = Thread.currentThread();
+		}
+		
+		int stop() {
+			this.watchedThread = null;
+			return this.connections.get();
+		}
+		
+		@Override
+		public Connection getConnection() throws SQLException {
+			if (Thread.currentThread() == this.watchedThread)
+				this.connections.incrementAndGet();
+			return super.getConnection();
+		}
+		
+		@Override
+		public Connection getConnection(final String username, final String password) throws SQLException {
+			if (Thread.currentThread() == this.watchedThread)
+				this.connections.incrementAndGet();
+			return super.getConnection(username, password);
+		}
+		
+	}
+	
+	@TestConfiguration
+	static class CountingConfig {
+		
+		@Bean
+		static BeanPostProcessor primaryConnectionCounter() {
+			return new BeanPostProcessor() {
+				
+				@Override
+				public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+					return "primaryDataSource".equals(beanName) ? new CountingDataSource((DataSource) bean) : bean;
+				}
+				
+			};
+		}
+		
+	}
+	
+}
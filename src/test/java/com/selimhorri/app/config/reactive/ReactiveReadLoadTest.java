@@ -0,0 +1,189 @@
+package com.selimhorri.app.config.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.selimhorri.app.OrderServiceApplication;
+import com.selimhorri.app.config.client.SlowUserServiceStub;
+
+/**
+ * Tomcat vs the reactive read server, thousands of concurrent readers of a cart whose user
+ * comes from a slow USER-SERVICE. Opt-in, it boots the real app once with both servers and
+ * runs for a while: ./mvnw test -Dtest=ReactiveReadLoadTest -Dloadtest=true
+ * (-Dloadtest.concurrency, -Dloadtest.seconds and -Dloadtest.userServiceDelayMillis tune it).
+ * It fails when the reactive run does not reach -Dloadtest.minSpeedup (2) times the servlet
+ * throughput with a lower median latency.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ReactiveReadLoadTest {
+
+	private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 2000);
+	private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.seconds", 10));
+	private static final Duration WARM_UP = Duration.ofSeconds(3);
+	private static final long USER_SERVICE_DELAY_MILLIS = Long.getLong("loadtest.userServiceDelayMillis", 500);
+	private static final int TOMCAT_MAX_THREADS = 50;
+	private static final int EVENT_LOOP_THREADS = 2;
+	private static final double MIN_SPEEDUP = Double.parseDouble(System.getProperty("loadtest.minSpeedup", "2"));
+
+	private static SlowUserServiceStub userService;
+
+	@BeforeAll
+	static void startUserService() throws IOException {
+		userService = SlowUserServiceStub.start(USER_SERVICE_DELAY_MILLIS, CONCURRENCY);
+	}
+
+	@AfterAll
+	static void stopUserService() {
+		userService.close();
+	}
+
+	@Test
+	void reactiveReadsShouldNotBeBoundByTomcatPoolSize() throws Exception {
+		// Command line arguments, builder properties would lose against application.yml
+		try (final ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderServiceApplication.class)
+				.run(
+						"--spring.profiles.active=dev,reactive",
+						"--server.port=0",
+						"--app.reactive.port=0",
+						"--app.reactive.event-loop-threads=" + EVENT_LOOP_THREADS,
+						"--eureka.client.enabled=false",
+						"--spring.zipkin.enabled=false",
+						"--spring.jpa.show-sql=false",
+						"--logging.level.root=WARN",
+						"--logging.level.com.selimhorri=WARN",
+						"--logging.level.org.hibernate.SQL=WARN",
+						"--logging.level.org.springframework.web=WARN",
+						"--logging.level.org.springframework.data=WARN",
+						"--server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+						// Every request goes out to the slow stub, through a pool that is never the limit
+						"--app.user-client.cache.maximum-size=0",
+						"--app.user-client.cache.expire-after-write=1ms",
+						"--app.user-client.max-connections=" + CONCURRENCY * 2,
+						"--app.user-client.pending-acquire-timeout=30s",
+						"--app.user-client.read-timeout=30s",
+						userService.discoveryArgument())) {
+			final int servletPort = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+			final int reactivePort = context.getBean(ReactiveReadServer.class).getPort();
+			final List<LoadResult> results = new ArrayList<>();
+			for (final int port : new int[] { servletPort, reactivePort }) {
+				final URI uri = URI.create("http://localhost:" + port + "/order-service/api/carts/1");
+				this.load(uri, WARM_UP);
+				results.add(this.load(uri, DURATION).named(port == reactivePort ? "reactive" : "servlet"));
+			}
+
+			System.out.printf("%n%d clients, USER-SERVICE delay %d ms, server.tomcat.threads.max=%d, "
+					+ "app.reactive.event-loop-threads=%d%n",
+					CONCURRENCY, USER_SERVICE_DELAY_MILLIS, TOMCAT_MAX_THREADS, EVENT_LOOP_THREADS);
+			results.forEach(System.out::println);
+			final LoadResult servlet = results.get(0);
+			final LoadResult reactive = results.get(1);
+			// Tomcat may time some of them out, that is the point of the comparison
+			assertThat(reactive.errors).isZero();
+			assertThat(reactive.throughput)
+					.as("reactive throughput against %s servlet", servlet)
+					.isGreaterThanOrEqualTo(servlet.throughput * MIN_SPEEDUP);
+			assertThat(reactive.p50Millis)
+					.as("reactive p50 against %s servlet", servlet)
+					.isLessThan(servlet.p50Millis);
+		}
+	}
+
+	/**
+	 * Closed loop: each client sends its next request as soon as the previous one answered.
+	 * Clients are asynchronous, so thousands of them do not need thousands of threads here.
+	 */
+	private LoadResult load(final URI uri, final Duration duration) {
+		final HttpClient httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+		final HttpRequest request = HttpRequest.newBuilder(uri)
+				.timeout(Duration.ofSeconds(30))
+				.GET()
+				.build();
+		final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		final AtomicLong errors = new AtomicLong();
+		final long start = System.nanoTime();
+		final long deadline = start + duration.toNanos();
+		final List<CompletableFuture<Void>> clients = new ArrayList<>();
+		for (int i = 0; i < CONCURRENCY; i++)
+			clients.add(this.client(httpClient, request, deadline, latencies, errors));
+		CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).join();
+		final List<Long> sortedLatencies = new ArrayList<>(latencies);
+		Collections.sort(sortedLatencies);
+		// Requests still queued at the deadline are waited for, so they count in the elapsed time
+		return new LoadResult(sortedLatencies, errors.get(), Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	private CompletableFuture<Void> client(final HttpClient httpClient, final HttpRequest request, final long deadline,
+			final ConcurrentLinkedQueue<Long> latencies, final AtomicLong errors) {
+		if (System.nanoTime() >= deadline)
+			return CompletableFuture.completedFuture(null);
+		final long sent = System.nanoTime();
+		return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+				.handle((response, e) -> {
+					if (e != null || response.statusCode() != 200)
+						errors.incrementAndGet();
+					latencies.add(System.nanoTime() - sent);
+					return null;
+				})
+				.thenCompose(ignored -> this.client(httpClient, request, deadline, latencies, errors));
+	}
+
+	private static final class LoadResult {
+
+		private final long requests;
+		private final long errors;
+		private final double throughput;
+		private final long p50Millis;
+		private final long p99Millis;
+		private String mode = "warm-up";
+
+		private LoadResult(final List<Long> sortedLatencies, final long errors, final Duration elapsed) {
+			this.requests = sortedLatencies.size();
+			this.errors = errors;
+			this.throughput = this.requests * 1000.0 / elapsed.toMillis();
+			this.p50Millis = percentileMillis(sortedLatencies, 0.50);
+			this.p99Millis = percentileMillis(sortedLatencies, 0.99);
+		}
+
+		private LoadResult named(final String mode) {
+			this.mode = mode;
+			return this;
+		}
+
+		private static long percentileMillis(final List<Long> sortedLatencies, final double percentile) {
+			if (sortedLatencies.isEmpty())
+				return 0;
+			final int index = (int) Math.ceil(percentile * sortedLatencies.size()) - 1;
+			return Duration.ofNanos(sortedLatencies.get(Math.max(0, index))).toMillis();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-8s %8d requests %8.1f req/s  p50 %5d ms  p99 %5d ms  %d errors",
+					this.mode, this.requests, this.throughput, this.p50Millis, this.p99Millis, this.errors);
+		}
+
+	}
+
+}
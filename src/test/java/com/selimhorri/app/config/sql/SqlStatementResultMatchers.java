@@ -0,0 +1,28 @@
+package com.selimhorri.app.config.sql;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.Matchers;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * MockMvc matchers on the statement count recorded by {@link SqlStatementBudgetFilter}.
+ */
+public final class SqlStatementResultMatchers {
+	
+	private SqlStatementResultMatchers() {
+	}
+	
+	public static ResultMatcher sqlStatementCount(final Matcher<? super Integer> matcher) {
+		return result -> assertThat(
+				"SQL statements of " + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI(),
+				(Integer) result.getRequest().getAttribute(SqlStatementBudgetFilter.STATEMENT_COUNT_ATTRIBUTE),
+				matcher);
+	}
+	
+	public static ResultMatcher sqlStatementCount(final int expected) {
+		return sqlStatementCount(Matchers.is(expected));
+	}
+	
+}
@@ -0,0 +1,196 @@
+package com.selimhorri.app.config.threads;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.selimhorri.app.OrderServiceApplication;
+import com.selimhorri.app.config.client.SlowUserServiceStub;
+
+/**
+ * Platform vs virtual request threads under a slow USER-SERVICE. Opt-in, it boots the real
+ * app twice and runs for a while: ./mvnw test -Dtest=VirtualThreadLoadTest -Dloadtest=true
+ * (-Dloadtest.concurrency, -Dloadtest.seconds and -Dloadtest.userServiceDelayMillis tune it).
+ * It needs a Java 21+ JDK, fails otherwise, and fails when the virtual run does not reach
+ * -Dloadtest.minSpeedup (2) times the platform throughput.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTest {
+	
+	private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 400);
+	private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.seconds", 10));
+	private static final Duration WARM_UP = Duration.ofSeconds(3);
+	private static final long USER_SERVICE_DELAY_MILLIS = Long.getLong("loadtest.userServiceDelayMillis", 500);
+	private static final int TOMCAT_MAX_THREADS = 50;
+	private static final double MIN_SPEEDUP = Double.parseDouble(System.getProperty("loadtest.minSpeedup", "2"));
+	
+	private static SlowUserServiceStub userService;
+	
+	@BeforeAll
+	static void startUserService() throws IOException {
+		userService = SlowUserServiceStub.start(USER_SERVICE_DELAY_MILLIS, CONCURRENCY);
+	}
+	
+	@AfterAll
+	static void stopUserService() {
+		userService.close();
+	}
+	
+	@Test
+	void virtualThreadsShouldNotBeBoundByTomcatPoolSize() throws Exception {
+		// Checked first, a comparison without its virtual run would prove nothing
+		assertThat(VirtualThreadConfig.newVirtualThreadPerTaskExecutor().map(executor -> {
+			executor.shutdown();
+			return true;
+		}))
+				.as("Virtual threads need a Java 21+ runtime, running on %s", Runtime.version())
+				.isPresent();
+		final LoadResult platform = this.run(false);
+		final LoadResult virtual = this.run(true);
+	
+		System.out.printf("%n%d clients, USER-SERVICE delay %d ms, server.tomcat.threads.max=%d%n",
+				CONCURRENCY, USER_SERVICE_DELAY_MILLIS, TOMCAT_MAX_THREADS);
+		System.out.println(platform);
+		System.out.println(virtual);
+		assertThat(virtual.errors).isZero();
+		assertThat(virtual.throughput)
+				.as("virtual throughput against %s platform", platform)
+				.isGreaterThanOrEqualTo(platform.throughput * MIN_SPEEDUP);
+		assertThat(virtual.p50Millis)
+				.as("virtual p50 against %s platform", platform)
+				.isLessThan(platform.p50Millis);
+	}
+	
+	private LoadResult run(final boolean virtualThreads) throws Exception {
+		// Command line arguments, builder properties would lose against application.yml
+		try (final ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderServiceApplication.class)
+				.run(
+						"--server.port=0",
+						"--eureka.client.enabled=false",
+						"--spring.zipkin.enabled=false",
+						"--spring.jpa.show-sql=false",
+						"--logging.level.root=WARN",
+						"--logging.level.com.selimhorri=WARN",
+						"--logging.level.org.hibernate.SQL=WARN",
+						"--logging.level.org.springframework.web=WARN",
+						"--logging.level.org.springframework.data=WARN",
+						"--server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+						"--app.threads.virtual.enabled=" + virtualThreads,
+						// Every request goes out to the slow stub, through a pool that is never the limit
+						"--app.user-client.cache.maximum-size=0",
+						"--app.user-client.cache.expire-after-write=1ms",
+						"--app.user-client.max-connections=" + CONCURRENCY * 2,
+						"--app.user-client.pending-acquire-timeout=30s",
+						"--app.user-client.read-timeout=30s",
+						userService.discoveryArgument())) {
+			final int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+			final URI uri = URI.create("http://localhost:" + port + "/order-service/api/carts/1");
+			this.load(uri, WARM_UP);
+			return this.load(uri, DURATION).named(virtualThreads ? "virtual" : "platform");
+		}
+	}
+	
+	/**
+	 * Closed loop: each client sends its next request as soon as the previous one answered.
+	 */
+	private LoadResult load(final URI uri, final Duration duration) throws Exception {
+		final HttpClient httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+		final HttpRequest request = HttpRequest.newBuilder(uri)
+				.timeout(Duration.ofSeconds(30))
+				.GET()
+				.build();
+		final AtomicLong errors = new AtomicLong();
+		final long start = System.nanoTime();
+		final long deadline = start + duration.toNanos();
+		final ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+		try {
+			final List<Future<List<Long>>> futures = new ArrayList<>();
+			for (int i = 0; i < CONCURRENCY; i++) {
+				futures.add(clients.submit(() -> {
+					final List<Long> latencies = new ArrayList<>();
+					while (System.nanoTime() < deadline) {
+						final long sent = System.nanoTime();
+						try {
+							if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200)
+								errors.incrementAndGet();
+						}
+						catch (IOException e) {
+							errors.incrementAndGet();
+						}
+						latencies.add(System.nanoTime() - sent);
+					}
+					return latencies;
+				}));
+			}
+			final List<Long> latencies = new ArrayList<>();
+			for (final Future<List<Long>> future : futures)
+				latencies.addAll(future.get());
+			Collections.sort(latencies);
+			// Requests still queued at the deadline are waited for, so they count in the elapsed time
+			return new LoadResult(latencies, errors.get(), Duration.ofNanos(System.nanoTime() - start));
+		}
+		finally {
+			clients.shutdownNow();
+		}
+	}
+	
+	private static final class LoadResult {
+	
+		private final long requests;
+		private final long errors;
+		private final double throughput;
+		private final long p50Millis;
+		private final long p99Millis;
+		private String mode = "warm-up";
+	
+		private LoadResult(final List<Long> sortedLatencies, final long errors, final Duration elapsed) {
+			this.requests = sortedLatencies.size();
+			this.errors = errors;
+			this.throughput = this.requests * 1000.0 / elapsed.toMillis();
+			this.p50Millis = percentileMillis(sortedLatencies, 0.50);
+			this.p99Millis = percentileMillis(sortedLatencies, 0.99);
+		}
+	
+		private LoadResult named(final String mode) {
+			this.mode = mode;
+			return this;
+		}
+	
+		private static long percentileMillis(final List<Long> sortedLatencies, final double percentile) {
+			if (sortedLatencies.isEmpty())
+				return 0;
+			final int index = (int) Math.ceil(percentile * sortedLatencies.size()) - 1;
+			return Duration.ofNanos(sortedLatencies.get(Math.max(0, index))).toMillis();
+		}
+	
+		@Override
+		public String toString() {
+			return String.format("%-8s %8d requests %8.1f req/s  p50 %5d ms  p99 %5d ms  %d errors",
+					this.mode, this.requests, this.throughput, this.p50Millis, this.p99Millis, this.errors);
+		}
+	
+	}
+	
+}
@@ -0,0 +1,62 @@
+package com.selimhorri.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CartRepositoryTest {
+	
+	@Autowired
+	private CartRepository cartRepository;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	private Statistics statistics;
+	
+	@BeforeEach
+	void setUp() {
+		final var sessionFactory = this.entityManagerFactory.unwrap(SessionFactory.class);
+		// Start every test cold, cached lookups would otherwise skip the statements counted below
+		sessionFactory.getCache().evictAllRegions();
+		this.statistics = sessionFactory.getStatistics();
+		this.statistics.clear();
+	}
+	
+	@Test
+	void findActiveDtosAfterShouldListPageInOneStatementWithoutLoadingEntities() {
+		final var cartDtos = this.cartRepository.findActiveDtosAfter(0, PageRequest.of(0, 10));
+		
+		assertThat(cartDtos).isNotEmpty();
+		assertThat(cartDtos).allSatisfy(c -> assertThat(c.getUserDto().getUserId()).isEqualTo(c.getUserId()));
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+	}
+	
+	@Test
+	void findActiveDtoByIdShouldReadCartInOneStatementWithoutLoadingEntities() {
+		final var cartDto = this.cartRepository.findActiveDtoById(1);
+		
+		assertThat(cartDto).isPresent();
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+	}
+	
+	@Test
+	void existsActiveByIdShouldCheckTheCartInOneStatementEach() {
+		assertThat(this.cartRepository.existsActiveById(1)).isTrue();
+		assertThat(this.cartRepository.existsActiveById(Integer.MAX_VALUE)).isFalse();
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+	}
+	
+}
@@ -0,0 +1,206 @@
+package com.selimhorri.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.OrderChangeDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderSearchCriteria;
+import com.selimhorri.app.dto.OrderSummaryDto;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderRepositoryTest {
+	
+	@Autowired
+	private OrderRepository orderRepository;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private DataSource dataSource;
+	
+	private Statistics statistics;
+	
+	@BeforeEach
+	void setUp() {
+		final var sessionFactory = this.entityManagerFactory.unwrap(SessionFactory.class);
+		// Start every test cold, cached lookups would otherwise skip the statements counted below
+		sessionFactory.getCache().evictAllRegions();
+		this.statistics = sessionFactory.getStatistics();
+		this.statistics.clear();
+	}
+	
+	@Test
+	void findActiveDtosAfterShouldListPageInOneStatementWithoutLoadingEntities() {
+		final var orderDtos = this.orderRepository.findActiveDtosAfter(0, PageRequest.of(0, 10));
+		
+		assertThat(orderDtos).isNotEmpty();
+		assertThat(orderDtos).allSatisfy(o -> assertThat(o.getCartDto().getCartId()).isNotNull());
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+	}
+	
+	@Test
+	void findActiveDtosByCartIdsShouldReadOrdersOfManyCartsInOneStatement() {
+		final var orderDtos = this.orderRepository.findActiveDtosByCartIds(List.of(1, 2, 3), PageRequest.of(0, 100));
+		
+		assertThat(orderDtos).extracting(o -> o.getCartDto().getCartId()).containsOnly(1, 2, 3);
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+	}
+	
+	@Test
+	void streamActiveDtosShouldReadAllOrdersInOneStatementWithoutLoadingEntities() {
+		final List<Integer> orderIds;
+		try (final var orderDtos = this.orderRepository.streamActiveDtos()) {
+			orderIds = orderDtos.map(OrderDto::getOrderId).collect(Collectors.toList());
+		}
+		
+		assertThat(orderIds).isNotEmpty().isSorted();
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+	}
+	
+	@Test
+	void summarizeActiveByStatusShouldAggregateInOneStatementWithoutLoadingEntities() {
+		final var summaries = this.orderRepository.summarizeActiveByStatus();
+		
+		assertThat(summaries).isNotEmpty();
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+		
+		final var total = this.orderRepository.summarizeActive();
+		assertThat(summaries.stream().mapToLong(OrderSummaryDto::getOrderCount).sum()).isEqualTo(total.getOrderCount());
+		assertThat(summaries.stream().mapToDouble(OrderSummaryDto::getTotalFee).sum()).isEqualTo(total.getTotalFee());
+	}
+	
+	@Test
+	void findActiveDtoByIdShouldReadOrderInOneStatementWithoutLoadingEntities() {
+		final var orderDto = this.orderRepository.findActiveDtoById(1);
+		
+		assertThat(orderDto).isPresent();
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+	}
+	
+	@Test
+	void findActiveDtoByIdShouldBeServedFromQueryCacheUntilOrdersChange() {
+		this.orderRepository.findActiveDtoById(2);
+		this.statistics.clear();
+		
+		assertThat(this.orderRepository.findActiveDtoById(2)).isPresent();
+		assertThat(this.statistics.getPrepareStatementCount()).isZero();
+		assertThat(this.statistics.getQueryCacheHitCount()).isEqualTo(1);
+		
+		// A soft delete is a bulk update on orders, which must invalidate the cached lookup
+		this.orderRepository.deactivateAllById(List.of(2), OrderStatus.IN_PAYMENT, Instant.now());
+		assertThat(this.orderRepository.findActiveDtoById(2)).isEmpty();
+	}
+	
+	@Test
+	void findChangesAfterShouldResumeFromWatermarkAndKeepSoftDeletedOrdersAsTombstones() {
+		this.orderRepository.deactivateAllById(List.of(3), OrderStatus.IN_PAYMENT, Instant.now());
+		this.statistics.clear();
+		final var before = Instant.now().plusSeconds(60);
+		
+		final var changes = this.orderRepository.findChangesAfter(Instant.EPOCH, 0, before, PageRequest.of(0, 100));
+		
+		assertThat(changes).isSortedAccordingTo(Comparator.comparing(OrderChangeDto::getUpdatedAt)
+				.thenComparing(OrderChangeDto::getOrderId));
+		assertThat(changes).filteredOn(OrderChangeDto::isDeleted)
+				.singleElement()
+				.satisfies(c -> {
+					assertThat(c.getOrderId()).isEqualTo(3);
+					assertThat(c.getOrderDto()).isNull();
+				});
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+		
+		// Resuming from the first row returns exactly the rest of the feed
+		final var first = changes.get(0);
+		assertThat(this.orderRepository.findChangesAfter(first.getUpdatedAt(), first.getOrderId(), before,
+				PageRequest.of(0, 100)))
+				.containsExactlyElementsOf(changes.subList(1, changes.size()));
+	}
+	
+	@Test
+	void findActiveDtosByUserIdAfterShouldReadOrdersOfEveryCartOfUserInOneStatement() {
+		final var jdbcTemplate = new JdbcTemplate(this.dataSource);
+		jdbcTemplate.update("INSERT INTO carts (cart_id, user_id) VALUES (100, 7), (101, 7), (102, 8)");
+		jdbcTemplate.update("INSERT INTO orders (cart_id, order_desc, order_fee) VALUES "
+				+ "(100, 'user', 10), (101, 'user', 20), (101, 'user', 30), (102, 'other', 40)");
+		
+		final var orderDtos = this.orderRepository.findActiveDtosByUserIdAfter(7, 0, PageRequest.of(0, 10));
+		
+		assertThat(orderDtos).extracting(OrderDto::getOrderFee).containsExactlyInAnyOrder(10.0, 20.0, 30.0);
+		assertThat(orderDtos).extracting(OrderDto::getOrderId).isSorted();
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+		
+		// Resuming from the first row returns exactly the rest of the page
+		assertThat(this.orderRepository.findActiveDtosByUserIdAfter(7, orderDtos.get(0).getOrderId(),
+				PageRequest.of(0, 10)))
+				.containsExactlyElementsOf(orderDtos.subList(1, orderDtos.size()));
+	}
+	
+	@Test
+	void searchActiveDtosShouldFilterAndSortInOneStatementAndResumeFromKeyset() {
+		new JdbcTemplate(this.dataSource).update("INSERT INTO orders (cart_id, order_desc, order_fee, status, order_date, updated_at) VALUES "
+				+ "(1, 'search', 150, 'ORDERED', DATEADD('HOUR', -1, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP), "
+				+ "(1, 'search', 300, 'ORDERED', DATEADD('HOUR', -2, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP), "
+				+ "(2, 'search', 200, 'ORDERED', DATEADD('HOUR', -3, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP), "
+				+ "(1, 'search', 50, 'ORDERED', DATEADD('HOUR', -1, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP), "
+				+ "(1, 'search', 250, 'CREATED', DATEADD('HOUR', -1, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP), "
+				+ "(1, 'search', 400, 'ORDERED', DATEADD('DAY', -2, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP)");
+		final var criteria = OrderSearchCriteria.builder()
+				.status(OrderStatus.ORDERED)
+				.from(LocalDateTime.now().minusDays(1))
+				.minFee(100.0)
+				.sort(OrderSearchCriteria.SortKey.ORDER_FEE)
+				.direction(Direction.DESC)
+				.build();
+		
+		final var firstPage = this.orderRepository.searchActiveDtos(criteria, null, 2);
+		
+		assertThat(firstPage).extracting(OrderDto::getOrderFee).containsExactly(300.0, 200.0);
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+		
+		assertThat(this.orderRepository.searchActiveDtos(criteria, firstPage.get(1), 2))
+				.extracting(OrderDto::getOrderFee)
+				.containsExactly(150.0);
+	}
+	
+	@Test
+	void searchActiveDtosShouldFilterByUserThroughTheCart() {
+		final var orderDtos = this.orderRepository.searchActiveDtos(OrderSearchCriteria.builder()
+				.userId(2)
+				.build(), null, 10);
+		
+		assertThat(orderDtos).isNotEmpty();
+		assertThat(orderDtos).extracting(o -> o.getCartDto().getCartId()).containsOnly(2);
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+	}
+	
+}
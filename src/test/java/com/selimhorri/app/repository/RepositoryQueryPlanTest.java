@@ -0,0 +1,322 @@
+package com.selimhorri.app.repository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.assertj.core.api.SoftAssertions;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderSearchCriteria;
+
+/**
+ * Runs every repository query against a seeded database, then EXPLAINs each statement it
+ * issued with the same parameters. A plan that reads a table, or a whole index, without a
+ * search condition fails the test. The plan format is H2's, as in every other test here.
+ */
+@DataJpaTest
+@Import(RepositoryQueryPlanTest.StatementCaptureConfig.class)
+class RepositoryQueryPlanTest {
+
+	// "/* PUBLIC.ORDERS.tableScan */" or "/* PUBLIC.IDX_ORDERS_CART_ID_IS_ACTIVE: CART_ID IN(?1, ?2) */"
+	private static final Pattern SCAN = Pattern.compile("/\\*\\s*([\\w.\"]+)\\s*(:[^*]*)?\\*/");
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private OrderOutboxEventRepository orderOutboxEventRepository;
+
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private SoftAssertions softly;
+
+	@BeforeEach
+	void setUp() {
+		// A few thousand rows, so the planner has a real choice between scans and indexes
+		final JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource);
+		jdbcTemplate.update("INSERT INTO carts (user_id, is_active, updated_at) "
+				+ "SELECT MOD(X, 200) + 1, MOD(X, 10) <> 0, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 500)");
+		jdbcTemplate.update("INSERT INTO orders (cart_id, order_desc, order_fee, is_active, status, order_date, updated_at) "
+				+ "SELECT MOD(X, 500) + 1, 'seed', 10, MOD(X, 10) <> 0, CASEWHEN(MOD(X, 3) = 0, 'ORDERED', 'CREATED'), "
+				+ "DATEADD('MINUTE', -X, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 5000)");
+		// Cached lookups would not issue the statements to explain
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		this.softly = new SoftAssertions();
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.softly.assertAll();
+	}
+
+	@Test
+	void orderRepositoryQueriesShouldUseIndexes() {
+		final Instant now = Instant.now();
+		this.assertIndexed("findActiveDtosAfter", () -> this.orderRepository.findActiveDtosAfter(100, PageRequest.of(0, 51)));
+		this.assertIndexed("findActiveDtosByCartIds", () -> this.orderRepository.findActiveDtosByCartIds(
+				List.of(1, 2, 3), PageRequest.of(0, 1001)));
+		this.assertIndexed("findActiveDtosByCartIdAfter", () -> this.orderRepository.findActiveDtosByCartIdAfter(
+				1, 100, PageRequest.of(0, 51)));
+		this.assertIndexed("streamActiveDtos", () -> {
+			try (final var orderDtos = this.orderRepository.streamActiveDtos()) {
+				orderDtos.limit(10).forEach(o -> { });
+			}
+		});
+		this.assertIndexed("findChangesAfter", () -> this.orderRepository.findChangesAfter(
+				now.minusSeconds(3600), 0, now, PageRequest.of(0, 51)));
+		this.assertIndexed("findActiveDtoById", () -> this.orderRepository.findActiveDtoById(1));
+		this.assertIndexed("summarizeActive", () -> this.orderRepository.summarizeActive());
+		this.assertIndexed("summarizeActiveByStatus", () -> this.orderRepository.summarizeActiveByStatus());
+		this.assertIndexed("summarizeActiveByDay", () -> this.orderRepository.summarizeActiveByDay(
+				LocalDateTime.now().minusDays(1), LocalDateTime.now()));
+		this.assertIndexed("summarizeActiveByCart", () -> this.orderRepository.summarizeActiveByCart(PageRequest.of(0, 10)));
+		this.assertIndexed("summarizeActiveByUser", () -> this.orderRepository.summarizeActiveByUser(PageRequest.of(0, 10)));
+		this.assertIndexed("findActiveDtosByUserIdAfter", () -> this.orderRepository.findActiveDtosByUserIdAfter(
+				1, 0, PageRequest.of(0, 51)));
+		this.assertIndexed("searchActiveDtos by status", () -> this.orderRepository.searchActiveDtos(
+				OrderSearchCriteria.builder().status(OrderStatus.ORDERED).build(), null, 51));
+		this.assertIndexed("searchActiveDtos by date", () -> this.orderRepository.searchActiveDtos(
+				OrderSearchCriteria.builder()
+						.from(LocalDateTime.now().minusDays(1))
+						.sort(OrderSearchCriteria.SortKey.ORDER_DATE)
+						.build(),
+				null, 51));
+		this.assertIndexed("searchActiveDtos by fee", () -> this.orderRepository.searchActiveDtos(
+				OrderSearchCriteria.builder()
+						.minFee(5.0)
+						.sort(OrderSearchCriteria.SortKey.ORDER_FEE)
+						.direction(Direction.DESC)
+						.build(),
+				OrderDto.builder().orderId(100).orderFee(20.0).build(), 51));
+		this.assertIndexed("searchActiveDtos by cart", () -> this.orderRepository.searchActiveDtos(
+				OrderSearchCriteria.builder().cartId(1).build(), null, 51));
+		this.assertIndexed("searchActiveDtos by user", () -> this.orderRepository.searchActiveDtos(
+				OrderSearchCriteria.builder().userId(1).build(), null, 51));
+		this.assertIndexed("findActiveStatusById", () -> this.orderRepository.findActiveStatusById(1));
+		this.assertIndexed("findDeactivatableIds", () -> this.orderRepository.findDeactivatableIds(
+				List.of(1, 2), OrderStatus.IN_PAYMENT));
+		this.assertIndexed("findDeactivatableIdsByCartId", () -> this.orderRepository.findDeactivatableIdsByCartId(
+				1, OrderStatus.IN_PAYMENT));
+		this.assertIndexed("findByOrderIdAndIsActiveTrue", () -> this.orderRepository.findByOrderIdAndIsActiveTrue(1));
+		this.assertIndexed("updateStatusIfCurrent", () -> this.orderRepository.updateStatusIfCurrent(
+				1, OrderStatus.CREATED, OrderStatus.ORDERED, now));
+		this.assertIndexed("deactivateAllById", () -> this.orderRepository.deactivateAllById(
+				List.of(2, 3), OrderStatus.IN_PAYMENT, now));
+	}
+
+	@Test
+	void cartRepositoryQueriesShouldUseIndexes() {
+		final Instant now = Instant.now();
+		this.assertIndexed("findActiveDtosAfter", () -> this.cartRepository.findActiveDtosAfter(100, PageRequest.of(0, 51)));
+		this.assertIndexed("findChangesAfter", () -> this.cartRepository.findChangesAfter(
+				now.minusSeconds(3600), 0, now, PageRequest.of(0, 51)));
+		this.assertIndexed("findActiveDtoById", () -> this.cartRepository.findActiveDtoById(1));
+		this.assertIndexed("existsActiveById", () -> this.cartRepository.existsActiveById(1));
+		this.assertIndexed("findExistingCartIds", () -> this.cartRepository.findExistingCartIds(List.of(1, 2, 3)));
+		this.assertIndexed("existsById", () -> this.cartRepository.existsById(1));
+		this.assertIndexed("deactivateById", () -> this.cartRepository.deactivateById(4, now));
+	}
+
+	@Test
+	void outboxAndIdempotencyQueriesShouldUseIndexes() {
+		final Instant now = Instant.now();
+		this.assertIndexed("findUnpublished", () -> this.orderOutboxEventRepository.findUnpublished(PageRequest.of(0, 500)));
+		this.assertIndexed("markPublished", () -> this.orderOutboxEventRepository.markPublished(List.of(1L, 2L), now));
+		this.assertIndexed("deleteAllPublishedBefore", () -> this.orderOutboxEventRepository.deleteAllPublishedBefore(now));
+		this.assertIndexed("deleteAllCreatedBefore", () -> this.idempotencyRecordRepository.deleteAllCreatedBefore(now));
+		this.assertIndexed("findById", () -> this.idempotencyRecordRepository.findById("key"));
+	}
+
+	private void assertIndexed(final String query, final Runnable invocation) {
+		final List<CapturedStatement> statements = StatementCapture.capture(invocation);
+		this.softly.assertThat(statements).as("%s issued no statement", query).isNotEmpty();
+		for (final CapturedStatement statement : statements) {
+			final String plan = this.explain(statement);
+			this.softly.assertThat(fullScans(plan))
+					.as("%s falls back to a full scan:%n%s", query, plan)
+					.isEmpty();
+		}
+	}
+
+	private String explain(final CapturedStatement statement) {
+		// The connection of the test transaction, so the seeded rows are visible
+		final Connection connection = DataSourceUtils.getConnection(this.dataSource);
+		try (final PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql)) {
+			statement.bind(explain);
+			try (final ResultSet resultSet = explain.executeQuery()) {
+				resultSet.next();
+				return resultSet.getString(1);
+			}
+		}
+		catch (SQLException e) {
+			throw new IllegalStateException("Cannot explain " + statement.sql, e);
+		}
+	}
+
+	private static List<String> fullScans(final String plan) {
+		final List<String> fullScans = new ArrayList<>();
+		final Matcher matcher = SCAN.matcher(plan);
+		while (matcher.find())
+			if (matcher.group(1).endsWith(".tableScan") || matcher.group(2) == null)
+				fullScans.add(matcher.group());
+		return fullScans;
+	}
+
+	private static final class CapturedStatement {
+
+		private final String sql;
+		private final List<Method> setters = new ArrayList<>();
+		private final List<Object[]> arguments = new ArrayList<>();
+
+		private CapturedStatement(final String sql) {
+			this.sql = sql;
+		}
+
+		private void bind(final PreparedStatement preparedStatement) throws SQLException {
+			for (int i = 0; i < this.setters.size(); i++) {
+				try {
+					this.setters.get(i).invoke(preparedStatement, this.arguments.get(i));
+				}
+				catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+				catch (InvocationTargetException e) {
+					throw (SQLException) e.getTargetException();
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Records the SQL and parameter setters of the statements prepared on the current thread
+	 * inside {@link #capture(Runnable)}, so they can be replayed behind an EXPLAIN.
+	 */
+	static final class StatementCapture extends DelegatingDataSource {
+
+		private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+
+		StatementCapture(final DataSource targetDataSource) {
+			super(targetDataSource);
+		}
+
+		static List<CapturedStatement> capture(final Runnable invocation) {
+			CAPTURED.set(new ArrayList<>());
+			try {
+				invocation.run();
+				return CAPTURED.get();
+			}
+			finally {
+				CAPTURED.remove();
+			}
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return capturing(super.getConnection());
+		}
+
+		@Override
+		public Connection getConnection(final String username, final String password) throws SQLException {
+			return capturing(super.getConnection(username, password));
+		}
+
+		private static Connection capturing(final Connection connection) {
+			return (Connection) Proxy.newProxyInstance(StatementCapture.class.getClassLoader(),
+					new Class<?>[] { Connection.class },
+					(proxy, method, args) -> {
+						final Object result = invoke(connection, method, args);
+						final List<CapturedStatement> captured = CAPTURED.get();
+						if (captured == null || !method.getName().equals("prepareStatement"))
+							return result;
+						final CapturedStatement statement = new CapturedStatement((String) args[0]);
+						captured.add(statement);
+						return capturing((PreparedStatement) result, statement);
+					});
+		}
+
+		private static PreparedStatement capturing(final PreparedStatement preparedStatement,
+				final CapturedStatement statement) {
+			return (PreparedStatement) Proxy.newProxyInstance(StatementCapture.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class },
+					(proxy, method, args) -> {
+						if (method.getName().startsWith("set") && args != null && args.length >= 2
+								&& args[0] instanceof Integer) {
+							statement.setters.add(method);
+							statement.arguments.add(args);
+						}
+						return invoke(preparedStatement, method, args);
+					});
+		}
+
+		private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			}
+			catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+
+	}
+
+	@TestConfiguration
+	static class StatementCaptureConfig {
+
+		@Bean
+		static BeanPostProcessor statementCapturePostProcessor() {
+			return new BeanPostProcessor() {
+
+				@Override
+				public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+					return bean instanceof DataSource && !(bean instanceof StatementCapture)
+							? new StatementCapture((DataSource) bean)
+							: bean;
+				}
+
+			};
+		}
+
+	}
+
+}
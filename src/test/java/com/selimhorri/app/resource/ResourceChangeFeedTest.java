@@ -0,0 +1,158 @@
+package com.selimhorri.app.resource;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jayway.jsonpath.JsonPath;
+import com.selimhorri.app.helper.PageCursorHelper;
+import com.selimhorri.app.service.UserClientService;
+
+/**
+ * Change feeds of orders and carts. Each test rolls back, the rows it moves to the year 2000
+ * come first in a feed started just before, whatever other tests left in the database.
+ */
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"spring.zipkin.enabled=false",
+		"app.sql.fail-on-exceeded=true",
+		"app.sql.endpoint-budgets.[/api/orders/summary]=0" })
+@AutoConfigureMockMvc
+@Transactional
+class ResourceChangeFeedTest {
+
+	private static final String BEFORE_2000_TOKEN = PageCursorHelper.encode(Instant.parse("1999-06-01T00:00:00Z"), 0);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@MockBean
+	private UserClientService userClientService;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+	}
+
+	@Test
+	void orderChangesShouldResumeFromTokenAndKeepSoftDeletedOrdersAsTombstones() throws Exception {
+		this.jdbcTemplate.update("UPDATE orders SET updated_at = TIMESTAMP '2000-01-01 00:00:00' WHERE order_id = 1");
+		this.jdbcTemplate.update("UPDATE orders SET updated_at = TIMESTAMP '2000-01-02 00:00:00' WHERE order_id = 2");
+		this.jdbcTemplate.update("UPDATE orders SET updated_at = TIMESTAMP '2000-01-03 00:00:00', is_active = FALSE "
+				+ "WHERE order_id = 3");
+
+		final String firstPage = this.mockMvc.perform(get("/api/orders/changes")
+				.param("since", BEFORE_2000_TOKEN)
+				.param("size", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[*].orderId").value(contains(1, 2)))
+				.andExpect(jsonPath("$.collection[0].deleted").value(false))
+				.andExpect(jsonPath("$.collection[0].order.orderId").value(1))
+				.andExpect(jsonPath("$.hasMore").value(true))
+				.andReturn().getResponse().getContentAsString();
+
+		this.mockMvc.perform(get("/api/orders/changes")
+				.param("since", JsonPath.<String>read(firstPage, "$.token"))
+				.param("size", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].orderId").value(3))
+				.andExpect(jsonPath("$.collection[0].deleted").value(true))
+				.andExpect(jsonPath("$.collection[0].order").doesNotExist());
+	}
+
+	@Test
+	void cartChangesShouldResumeFromTokenAndKeepSoftDeletedCartsAsTombstones() throws Exception {
+		this.jdbcTemplate.update("UPDATE carts SET updated_at = TIMESTAMP '2000-01-01 00:00:00' WHERE cart_id = 1");
+		this.jdbcTemplate.update("UPDATE carts SET updated_at = TIMESTAMP '2000-01-02 00:00:00', is_active = FALSE "
+				+ "WHERE cart_id = 2");
+
+		final String firstPage = this.mockMvc.perform(get("/api/carts/changes")
+				.param("since", BEFORE_2000_TOKEN)
+				.param("size", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].cartId").value(1))
+				.andExpect(jsonPath("$.collection[0].deleted").value(false))
+				.andExpect(jsonPath("$.collection[0].cart.cartId").value(1))
+				.andExpect(jsonPath("$.hasMore").value(true))
+				.andReturn().getResponse().getContentAsString();
+
+		this.mockMvc.perform(get("/api/carts/changes")
+				.param("since", JsonPath.<String>read(firstPage, "$.token"))
+				.param("size", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].cartId").value(2))
+				.andExpect(jsonPath("$.collection[0].deleted").value(true))
+				.andExpect(jsonPath("$.collection[0].cart").doesNotExist());
+	}
+
+	@Test
+	void emptyPageShouldHandBackTheTokenItWasRequestedWith() throws Exception {
+		final String futureToken = PageCursorHelper.encode(Instant.now().plusSeconds(3600), 0);
+
+		for (final String feed : new String[] { "/api/orders/changes", "/api/carts/changes" })
+			this.mockMvc.perform(get(feed).param("since", futureToken))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.collection", empty()))
+					.andExpect(jsonPath("$.token").value(futureToken))
+					.andExpect(jsonPath("$.hasMore").value(false));
+	}
+
+	@Test
+	void invalidTokenShouldBeBadRequest() throws Exception {
+		for (final String feed : new String[] { "/api/orders/changes", "/api/carts/changes" }) {
+			this.mockMvc.perform(get(feed).param("since", "bad"))
+					.andExpect(status().isBadRequest());
+			this.mockMvc.perform(get(feed).param("since", PageCursorHelper.encode("yesterday", 1)))
+					.andExpect(status().isBadRequest());
+		}
+	}
+
+	@Test
+	void changesShouldBeHeldBackUntilTheyHaveSettled() throws Exception {
+		final String recentToken = PageCursorHelper.encode(Instant.now().minusSeconds(300), 0);
+		this.jdbcTemplate.update("UPDATE orders SET updated_at = CURRENT_TIMESTAMP WHERE order_id = 4");
+		this.jdbcTemplate.update("UPDATE carts SET updated_at = CURRENT_TIMESTAMP WHERE cart_id = 4");
+
+		// Touched just now, inside the settle window: a transaction committing late could still land before it
+		this.mockMvc.perform(get("/api/orders/changes").param("since", recentToken).param("size", "500"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[*].orderId", not(hasItem(4))));
+		this.mockMvc.perform(get("/api/carts/changes").param("since", recentToken).param("size", "500"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[*].cartId", not(hasItem(4))));
+
+		this.jdbcTemplate.update("UPDATE orders SET updated_at = DATEADD('SECOND', -30, CURRENT_TIMESTAMP) WHERE order_id = 4");
+		this.jdbcTemplate.update("UPDATE carts SET updated_at = DATEADD('SECOND', -30, CURRENT_TIMESTAMP) WHERE cart_id = 4");
+
+		this.mockMvc.perform(get("/api/orders/changes").param("since", recentToken).param("size", "500"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[*].orderId", hasItem(4)));
+		this.mockMvc.perform(get("/api/carts/changes").param("since", recentToken).param("size", "500"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[*].cartId", hasItem(4)));
+	}
+
+}
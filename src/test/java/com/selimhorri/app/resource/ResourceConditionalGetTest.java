@@ -0,0 +1,89 @@
+package com.selimhorri.app.resource;
+
+import static com.selimhorri.app.config.sql.SqlStatementResultMatchers.sqlStatementCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.selimhorri.app.service.UserClientService;
+
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"spring.zipkin.enabled=false",
+		"app.sql.fail-on-exceeded=true",
+		"app.sql.endpoint-budgets.[/api/orders/summary]=0" })
+@AutoConfigureMockMvc
+class ResourceConditionalGetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockBean
+	private UserClientService userClientService;
+
+	@BeforeEach
+	void setUp() {
+		// Cached lookups would skip the statements counted below
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		given(this.userClientService.findById(anyInt())).willReturn(Optional.empty());
+	}
+
+	@Test
+	void findOrderByIdShouldAnswerNotModifiedUntilTheOrderChanges() throws Exception {
+		final String eTag = this.mockMvc.perform(get("/api/orders/4"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		this.mockMvc.perform(get("/api/orders/4").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""))
+				.andExpect(sqlStatementCount(1));
+
+		this.mockMvc.perform(patch("/api/orders/4/status"))
+				.andExpect(status().isOk());
+		final String nextETag = this.mockMvc.perform(get("/api/orders/4").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(nextETag).isNotEqualTo(eTag);
+	}
+
+	@Test
+	void findCartByIdShouldSkipUserLookupWhenNotModified() throws Exception {
+		final String eTag = this.mockMvc.perform(get("/api/carts/1"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		clearInvocations(this.userClientService);
+
+		this.mockMvc.perform(get("/api/carts/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+		then(this.userClientService).should(never()).findById(anyInt());
+	}
+
+}
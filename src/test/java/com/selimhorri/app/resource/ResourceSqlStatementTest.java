@@ -0,0 +1,237 @@
+package com.selimhorri.app.resource;
+
+import static com.selimhorri.app.config.sql.SqlStatementResultMatchers.sqlStatementCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jayway.jsonpath.JsonPath;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.OrderSearchCriteria;
+import com.selimhorri.app.helper.PageCursorHelper;
+import com.selimhorri.app.service.UserClientService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"spring.zipkin.enabled=false",
+		"app.sql.fail-on-exceeded=true",
+		"app.sql.endpoint-budgets.[/api/orders/summary]=0" })
+@AutoConfigureMockMvc
+class ResourceSqlStatementTest {
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@Autowired
+	private DataSource dataSource;
+	
+	@MockBean
+	private UserClientService userClientService;
+	
+	private JdbcTemplate jdbcTemplate;
+	
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		// Cached lookups would skip the statements counted below
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+		given(this.userClientService.findById(anyInt())).willReturn(Optional.empty());
+		given(this.userClientService.findAllByIds(any())).willAnswer(invocation -> ((Collection<Integer>) invocation
+				.getArgument(0)).stream()
+				.collect(Collectors.toMap(Function.identity(), userId -> Optional.empty())));
+	}
+	
+	@Test
+	void findAllOrdersShouldIssueOneStatementAndRecordIt() throws Exception {
+		this.mockMvc.perform(get("/api/orders"))
+				.andExpect(status().isOk())
+				.andExpect(sqlStatementCount(1));
+		
+		assertThat(this.meterRegistry.find("http.server.sql.statements").tag("uri", "/api/orders").summary())
+				.isNotNull()
+				.satisfies(summary -> assertThat(summary.count()).isPositive());
+	}
+	
+	@Test
+	void findOrderByIdShouldIssueOneStatement() throws Exception {
+		this.mockMvc.perform(get("/api/orders/1"))
+				.andExpect(status().isOk())
+				.andExpect(sqlStatementCount(1));
+	}
+	
+	@Test
+	void findOrdersByUserIdShouldIssueOneStatement() throws Exception {
+		this.mockMvc.perform(get("/api/orders/user/1"))
+				.andExpect(status().isOk())
+				.andExpect(sqlStatementCount(1));
+	}
+	
+	@Test
+	void searchOrdersShouldIssueOneStatement() throws Exception {
+		this.mockMvc.perform(get("/api/orders/search")
+				.param("status", "CREATED")
+				.param("minFee", "100")
+				.param("userId", "1")
+				.param("sort", "ORDER_DATE")
+				.param("direction", "DESC"))
+				.andExpect(status().isOk())
+				.andExpect(sqlStatementCount(1));
+	}
+	
+	@Test
+	void findAllCartsWithOrdersShouldIssueTwoStatements() throws Exception {
+		this.mockMvc.perform(get("/api/carts").param("includeOrders", "true"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].orderDtos", not(empty())))
+				.andExpect(sqlStatementCount(2));
+	}
+	
+	@Test
+	void findCartOrdersShouldIssueTwoStatements() throws Exception {
+		this.mockMvc.perform(get("/api/carts/1/orders"))
+				.andExpect(status().isOk())
+				.andExpect(sqlStatementCount(2));
+	}
+	
+	@Test
+	@Transactional
+	void findCartOrdersShouldBeKeysetPaged() throws Exception {
+		this.jdbcTemplate.update("INSERT INTO orders (cart_id, order_desc, order_fee) VALUES (1, 'paged', 1), (1, 'paged', 2)");
+		
+		final String firstPage = this.mockMvc.perform(get("/api/carts/1/orders").param("size", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(1))
+				.andExpect(jsonPath("$.nextCursor").exists())
+				.andExpect(sqlStatementCount(2))
+				.andReturn().getResponse().getContentAsString();
+		
+		this.mockMvc.perform(get("/api/carts/1/orders")
+				.param("size", "1")
+				.param("cursor", JsonPath.<String>read(firstPage, "$.nextCursor")))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].orderId",
+						greaterThan(JsonPath.<Integer>read(firstPage, "$.collection[0].orderId"))))
+				.andExpect(sqlStatementCount(2));
+	}
+	
+	@Test
+	@Transactional
+	void findAllCartsWithOrdersShouldEndThePageBeforeACartOverTheOrderLimit() throws Exception {
+		this.jdbcTemplate.update("INSERT INTO orders (cart_id, order_desc, order_fee) "
+				+ "SELECT 2, 'bulk', 1 FROM SYSTEM_RANGE(1, " + AppConstant.MAX_EMBEDDED_ORDERS + ")");
+		
+		// Cart 2 does not fit with cart 1, the page stops at cart 1
+		this.mockMvc.perform(get("/api/carts").param("includeOrders", "true"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[*].cartId").value(contains(1)))
+				.andExpect(jsonPath("$.collection[0].orderDtos", not(empty())))
+				.andExpect(jsonPath("$.nextCursor").value(PageCursorHelper.encode(1)))
+				.andExpect(sqlStatementCount(2));
+		
+		// Alone it is still over the limit, it comes without its orders
+		this.mockMvc.perform(get("/api/carts")
+				.param("includeOrders", "true")
+				.param("cursor", PageCursorHelper.encode(1)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[*].cartId").value(contains(2)))
+				.andExpect(jsonPath("$.collection[0].orderDtos").doesNotExist())
+				.andExpect(jsonPath("$.nextCursor").value(PageCursorHelper.encode(2)))
+				.andExpect(sqlStatementCount(2));
+	}
+	
+	@Test
+	void searchOrdersWithCursorOfAnotherSortShouldBeRejectedWithoutAnyStatement() throws Exception {
+		final String ascendingCursor = PageCursorHelper.encode(OrderSearchCriteria.SortKey.ORDER_ID, Direction.ASC, 1);
+		
+		this.mockMvc.perform(get("/api/orders/search")
+				.param("direction", "DESC")
+				.param("cursor", ascendingCursor))
+				.andExpect(status().isBadRequest())
+				.andExpect(sqlStatementCount(0));
+		
+		this.mockMvc.perform(get("/api/orders/search")
+				.param("sort", "ORDER_FEE")
+				.param("cursor", ascendingCursor))
+				.andExpect(status().isBadRequest())
+				.andExpect(sqlStatementCount(0));
+		
+		this.mockMvc.perform(get("/api/orders/search")
+				.param("cursor", ascendingCursor))
+				.andExpect(status().isOk())
+				.andExpect(sqlStatementCount(1));
+	}
+	
+	@Test
+	void saveOrdersWithoutCartsShouldReportEveryItemWithoutAnyStatement() throws Exception {
+		this.mockMvc.perform(post("/api/orders/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"orderDesc\":\"no cart\"}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].error").value("Order must be associated with a cart"))
+				.andExpect(sqlStatementCount(0));
+		
+		this.mockMvc.perform(post("/api/orders/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection", empty()))
+				.andExpect(sqlStatementCount(0));
+	}
+	
+	@Test
+	void deleteOrdersWithoutIdsShouldIssueNoStatement() throws Exception {
+		this.mockMvc.perform(delete("/api/orders").param("ids", ""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$").value(0))
+				.andExpect(sqlStatementCount(0));
+	}
+	
+	@Test
+	void requestOverItsBudgetShouldFailWhenConfiguredTo() {
+		assertThatThrownBy(() -> this.mockMvc.perform(get("/api/orders/summary")))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("over its budget of 0");
+	}
+	
+}
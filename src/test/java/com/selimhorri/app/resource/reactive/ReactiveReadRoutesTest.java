@@ -0,0 +1,134 @@
+package com.selimhorri.app.resource.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.selimhorri.app.config.reactive.ReactiveReadServer;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.service.UserClientService;
+
+import reactor.core.publisher.Mono;
+
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"spring.zipkin.enabled=false",
+		"app.reactive.port=0" })
+@ActiveProfiles({ "dev", "reactive" })
+class ReactiveReadRoutesTest {
+	
+	@Autowired
+	private ReactiveReadServer reactiveReadServer;
+	
+	@MockBean
+	private UserClientService userClientService;
+	
+	private WebTestClient webTestClient;
+	
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		this.webTestClient = WebTestClient.bindToServer()
+				.baseUrl("http://localhost:" + this.reactiveReadServer.getPort() + "/order-service")
+				.build();
+		given(this.userClientService.findByIdAsync(anyInt())).willAnswer(invocation -> Mono.just(Optional.of(
+				UserDto.builder().userId(invocation.getArgument(0)).firstName("reactive").build())));
+		given(this.userClientService.findAllByIdsAsync(any())).willAnswer(invocation -> Mono.just(
+				((Collection<Integer>) invocation.getArgument(0)).stream()
+						.collect(Collectors.toMap(Function.identity(), userId -> Optional.<UserDto>empty()))));
+	}
+	
+	@Test
+	void findAllOrdersShouldPageWithKeysetCursor() {
+		this.webTestClient.get().uri("/api/orders?size=1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.collection.length()").isEqualTo(1)
+				.jsonPath("$.nextCursor").isNotEmpty();
+	}
+	
+	@Test
+	void findOrderByIdShouldAnswerNotModifiedForItsETag() {
+		final String eTag = this.webTestClient.get().uri("/api/orders/1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.orderId").isEqualTo(1)
+				.returnResult()
+				.getResponseHeaders().getETag();
+		assertThat(eTag).isNotBlank();
+		
+		this.webTestClient.get().uri("/api/orders/1")
+				.header(HttpHeaders.IF_NONE_MATCH, eTag)
+				.exchange()
+				.expectStatus().isNotModified()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+				.expectBody().isEmpty();
+	}
+	
+	@Test
+	void findCartByIdShouldEnrichUserAndSkipItWhenNotModified() {
+		final String eTag = this.webTestClient.get().uri("/api/carts/1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.user.firstName").isEqualTo("reactive")
+				.returnResult()
+				.getResponseHeaders().getETag();
+		clearInvocations(this.userClientService);
+		
+		this.webTestClient.get().uri("/api/carts/1")
+				.header(HttpHeaders.IF_NONE_MATCH, eTag)
+				.exchange()
+				.expectStatus().isNotModified();
+		then(this.userClientService).should(never()).findByIdAsync(anyInt());
+	}
+	
+	@Test
+	void exportAllShouldStreamOneOrderPerLine() {
+		final String body = this.webTestClient.get().uri("/api/orders/export")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.expectBody(String.class)
+				.returnResult()
+				.getResponseBody();
+		assertThat(body).isNotBlank();
+		assertThat(body.trim().split("\n")).allSatisfy(line -> assertThat(line).startsWith("{\"orderId\":"));
+	}
+	
+	@Test
+	void errorsShouldMapToApiStatuses() {
+		this.webTestClient.get().uri("/api/orders/" + Integer.MAX_VALUE)
+				.exchange()
+				.expectStatus().isNotFound();
+		this.webTestClient.get().uri("/api/carts?cursor=bad")
+				.exchange()
+				.expectStatus().isBadRequest();
+		this.webTestClient.post().uri("/api/orders")
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+	
+}
@@ -0,0 +1,91 @@
+package com.selimhorri.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.config.idempotency.IdempotencyConfig;
+import com.selimhorri.app.config.mapper.MapperConfig;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.exception.wrapper.IdempotencyKeyConflictException;
+import com.selimhorri.app.repository.IdempotencyRecordRepository;
+import com.selimhorri.app.service.IdempotencyService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@Import({ IdempotencyServiceImpl.class, IdempotencyConfig.class, MapperConfig.class, SimpleMeterRegistry.class })
+// Records must commit like they do behind the resources
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceImplTest {
+	
+	private static final String OPERATION = "POST /api/orders";
+	
+	@Autowired
+	private IdempotencyService idempotencyService;
+	
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+	
+	private final AtomicInteger executions = new AtomicInteger();
+	
+	@Test
+	void repeatedKeyShouldReplayStoredResponseWithoutRunningActionAgain() {
+		final String key = UUID.randomUUID().toString();
+		final OrderDto request = request("first");
+		
+		final OrderDto first = this.execute(key, request);
+		final OrderDto replayed = this.execute(key, request);
+		
+		assertThat(this.executions).hasValue(1);
+		assertThat(replayed).isEqualTo(first);
+		assertThat(this.idempotencyRecordRepository.existsById(key)).isTrue();
+	}
+	
+	@Test
+	void reusedKeyWithDifferentRequestShouldBeRejected() {
+		final String key = UUID.randomUUID().toString();
+		this.execute(key, request("first"));
+		
+		assertThatThrownBy(() -> this.execute(key, request("second")))
+				.isInstanceOf(IdempotencyKeyConflictException.class);
+		assertThat(this.executions).hasValue(1);
+	}
+	
+	@Test
+	void failedActionShouldNotStoreKey() {
+		final String key = UUID.randomUUID().toString();
+		
+		assertThatThrownBy(() -> this.idempotencyService.execute(key, OPERATION, request("first"), OrderDto.class, () -> {
+			throw new IllegalStateException("cart not found");
+		})).isInstanceOf(IllegalStateException.class);
+		
+		assertThat(this.idempotencyRecordRepository.existsById(key)).isFalse();
+		this.execute(key, request("first"));
+		assertThat(this.executions).hasValue(1);
+	}
+	
+	private OrderDto execute(final String key, final OrderDto request) {
+		return this.idempotencyService.execute(key, OPERATION, request, OrderDto.class, () -> OrderDto.builder()
+				.orderId(this.executions.incrementAndGet())
+				.orderDesc(request.getOrderDesc())
+				.build());
+	}
+	
+	private static OrderDto request(final String orderDesc) {
+		return OrderDto.builder()
+				.orderDesc(orderDesc)
+				.orderFee(10.0)
+				.build();
+	}
+	
+}
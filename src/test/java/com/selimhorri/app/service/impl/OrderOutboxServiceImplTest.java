@@ -0,0 +1,77 @@
+package com.selimhorri.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.config.mapper.MapperConfig;
+import com.selimhorri.app.config.outbox.OutboxConfig;
+import com.selimhorri.app.domain.enums.OrderEventType;
+import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderEventDto;
+import com.selimhorri.app.service.OrderOutboxService;
+import com.selimhorri.app.service.OrderService;
+
+@DataJpaTest
+@Import({ OrderServiceImpl.class, OrderOutboxServiceImpl.class, OutboxConfig.class, MapperConfig.class })
+// Events must be committed by the service call before the relay can see them
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderOutboxServiceImplTest {
+	
+	@Autowired
+	private OrderService orderService;
+	
+	@Autowired
+	private OrderOutboxService orderOutboxService;
+	
+	@Autowired
+	private LocalOrderEventPublisher localOrderEventPublisher;
+	
+	@BeforeEach
+	void setUp() {
+		this.orderOutboxService.relay();
+		this.localOrderEventPublisher.clear();
+	}
+	
+	@Test
+	void lifecycleChangesShouldBeRelayedOnceInOrder() {
+		final Integer orderId = this.orderService.save(OrderDto.builder()
+				.orderDesc("outbox")
+				.orderFee(10.0)
+				.cartDto(CartDto.builder()
+						.cartId(1)
+						.build())
+				.build())
+				.getOrderId();
+		this.orderService.updateStatus(orderId);
+		this.orderService.deleteById(orderId);
+		
+		assertThat(this.orderOutboxService.relay()).isEqualTo(3);
+		assertThat(this.orderOutboxService.relay()).isZero();
+		assertThat(this.localOrderEventPublisher.getPublished())
+				.extracting(OrderEventDto::getOrderId, OrderEventDto::getEventType)
+				.containsExactly(
+						tuple(orderId, OrderEventType.CREATED),
+						tuple(orderId, OrderEventType.STATUS_CHANGED),
+						tuple(orderId, OrderEventType.DELETED));
+		assertThat(this.localOrderEventPublisher.getPublished().get(0).getOrder()).contains("\"orderDesc\":\"outbox\"");
+	}
+	
+	@Test
+	void rejectedChangeShouldNotRecordAnyEvent() {
+		assertThatThrownBy(() -> this.orderService.deleteById(Integer.MAX_VALUE));
+		
+		assertThat(this.orderOutboxService.relay()).isZero();
+		assertThat(this.localOrderEventPublisher.getPublished()).isEmpty();
+	}
+	
+}
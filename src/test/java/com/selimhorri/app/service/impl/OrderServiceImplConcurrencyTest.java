@@ -0,0 +1,145 @@
+package com.selimhorri.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.config.mapper.MapperConfig;
+import com.selimhorri.app.config.outbox.OutboxConfig;
+import com.selimhorri.app.domain.Cart;
+import com.selimhorri.app.domain.Order;
+import com.selimhorri.app.domain.enums.OrderStatus;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.exception.wrapper.OrderNotFoundException;
+import com.selimhorri.app.repository.OrderRepository;
+import com.selimhorri.app.service.OrderService;
+
+@DataJpaTest
+@Import({ OrderServiceImpl.class, OrderOutboxServiceImpl.class, OutboxConfig.class, MapperConfig.class })
+// Every service call must commit on its own thread for the race to be real
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceImplConcurrencyTest {
+	
+	private static final int THREADS = 16;
+	
+	@Autowired
+	private OrderService orderService;
+	
+	@Autowired
+	private OrderRepository orderRepository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	private ExecutorService executor;
+	private Integer orderId;
+	
+	@BeforeEach
+	void setUp() {
+		this.executor = Executors.newFixedThreadPool(THREADS);
+		this.orderId = this.orderRepository.save(Order.builder()
+				.orderDate(LocalDateTime.now())
+				.orderDesc("contended")
+				.orderFee(10.0)
+				.isActive(true)
+				.cart(Cart.builder()
+						.cartId(1)
+						.build())
+				.build())
+				.getOrderId();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		this.executor.shutdownNow();
+		this.orderRepository.deleteById(this.orderId);
+	}
+	
+	@Test
+	void updateStatusShouldAdvanceExactlyOncePerStepUnderContention() throws Exception {
+		final var startGate = new CountDownLatch(1);
+		final var advanced = new AtomicInteger();
+		final var rejected = new AtomicInteger();
+		final List<Future<?>> futures = new ArrayList<>();
+		
+		for (int i = 0; i < THREADS; i++) {
+			futures.add(this.executor.submit(() -> {
+				startGate.await();
+				try {
+					this.orderService.updateStatus(this.orderId);
+					advanced.incrementAndGet();
+				}
+				catch (IllegalStateException e) {
+					rejected.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		startGate.countDown();
+		for (final Future<?> future : futures)
+			future.get(30, TimeUnit.SECONDS);
+		
+		// CREATED -> ORDERED -> IN_PAYMENT: only two requests can ever win, all others see a paid order
+		assertThat(advanced.get()).isEqualTo(2);
+		assertThat(rejected.get()).isEqualTo(THREADS - 2);
+		assertThat(this.orderRepository.findActiveStatusById(this.orderId)).contains(OrderStatus.IN_PAYMENT);
+	}
+	
+	@Test
+	void updateStatusShouldWaitForADeleteThatSelectedTheOrder() throws Exception {
+		this.orderService.updateStatus(this.orderId);
+		final var transactionTemplate = new TransactionTemplate(this.transactionManager);
+		final var updater = new AtomicReference<Future<OrderDto>>();
+		
+		// The steps of deleteAllById, with an update to IN_PAYMENT racing between select and delete
+		transactionTemplate.executeWithoutResult(status -> {
+			final List<Integer> deactivatableIds = this.orderRepository.findDeactivatableIds(
+					List.of(this.orderId), OrderStatus.IN_PAYMENT);
+			assertThat(deactivatableIds).containsExactly(this.orderId);
+			
+			updater.set(this.executor.submit(() -> this.orderService.updateStatus(this.orderId)));
+			try {
+				// Well under the lock timeout of H2
+				Thread.sleep(300);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			assertThat(updater.get()).isNotDone();
+			
+			assertThat(this.orderRepository.deactivateAllById(
+					deactivatableIds, OrderStatus.IN_PAYMENT, Instant.now())).isEqualTo(1);
+		});
+		
+		// Released by the commit, the update finds the order gone instead of paying it
+		assertThatThrownBy(() -> updater.get().get(30, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(OrderNotFoundException.class);
+		assertThat(this.orderRepository.findById(this.orderId)).hasValueSatisfying(order -> {
+			assertThat(order.isActive()).isFalse();
+			assertThat(order.getStatus()).isEqualTo(OrderStatus.ORDERED);
+		});
+	}
+	
+}